@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.CompilerOptions.LanguageMode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Inputs shared by the compiler benchmarks. Every fixture is deterministic, so results from
+ * different runs and machines are comparable.
+ */
+final class BenchmarkFixtures {
+
+  /** The compiler's own JS runtime library, relative to the runfiles root of a `bazel run`. */
+  private static final String RUNTIME_LIBRARY_DIR = "src/com/google/javascript/jscomp/js";
+
+  /** The inputs a benchmark can be run against, selected with JMH's {@code -p corpus=...}. */
+  enum Corpus {
+    /** A handful of small files; dominated by per-file and per-compilation overhead. */
+    SYNTHETIC_SMALL {
+      @Override
+      ImmutableList<SourceFile> load() {
+        return synthetic(10, 20);
+      }
+    },
+    /** A few megabytes of typed code, comparable to a mid-sized application. */
+    SYNTHETIC_LARGE {
+      @Override
+      ImmutableList<SourceFile> load() {
+        return synthetic(200, 50);
+      }
+    },
+    /** Hand-written code: the polyfills and runtime helpers shipped with the compiler. */
+    RUNTIME_LIBRARY {
+      @Override
+      ImmutableList<SourceFile> load() {
+        return readDirectory(Paths.get(RUNTIME_LIBRARY_DIR));
+      }
+    };
+
+    abstract ImmutableList<SourceFile> load();
+  }
+
+  /** Returns the browser externs bundled with the compiler. */
+  static ImmutableList<SourceFile> externs() {
+    try {
+      return ImmutableList.copyOf(
+          AbstractCommandLineRunner.getBuiltinExterns(CompilerOptions.Environment.BROWSER));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Returns the options used by all benchmarks. */
+  static CompilerOptions options() {
+    CompilerOptions options = new CompilerOptions();
+    options.setLanguageIn(LanguageMode.ECMASCRIPT_NEXT);
+    options.setLanguageOut(LanguageMode.NO_TRANSPILE);
+    options.setCheckTypes(true);
+    return options;
+  }
+
+  /**
+   * Returns a compiler that has parsed {@code inputs}. Most passes modify the AST, so benchmarks
+   * of those passes need a fresh compiler for each invocation.
+   */
+  static Compiler parse(ImmutableList<SourceFile> externs, ImmutableList<SourceFile> inputs) {
+    Compiler compiler = new Compiler();
+    compiler.init(externs, inputs, options());
+    compiler.parse();
+    if (compiler.hasErrors()) {
+      throw new IllegalStateException(
+          "Benchmark inputs do not parse: " + ImmutableList.copyOf(compiler.getErrors()));
+    }
+    return compiler;
+  }
+
+  /**
+   * Generates {@code numFiles} files of Closure-typed code. Each file declares a class whose
+   * methods call into the previous file's class, fold constants, branch on constant conditions
+   * and sit next to unused functions, giving the type checker and the optimizations some work.
+   */
+  static ImmutableList<SourceFile> synthetic(int numFiles, int methodsPerFile) {
+    ImmutableList.Builder<SourceFile> files = ImmutableList.builder();
+    for (int i = 0; i < numFiles; i++) {
+      files.add(SourceFile.fromCode("synthetic" + i + ".js", syntheticFile(i, methodsPerFile)));
+    }
+    return files.build();
+  }
+
+  private static String syntheticFile(int fileIndex, int methodsPerFile) {
+    String className = "Class" + fileIndex;
+    StringBuilder sb = new StringBuilder();
+    sb.append("/**\n * @constructor\n * @param {number} x\n */\n")
+        .append("function ")
+        .append(className)
+        .append("(x) {\n")
+        .append("  /** @type {number} */\n")
+        .append("  this.x = x;\n")
+        .append("}\n\n");
+    for (int j = 0; j < methodsPerFile; j++) {
+      sb.append("/**\n * @param {number} a\n * @param {string} s\n * @return {number}\n */\n")
+          .append(className)
+          .append(".prototype.m")
+          .append(j)
+          .append(" = function(a, s) {\n")
+          .append("  var result = this.x + a * ")
+          .append(j)
+          .append(" + 2 * 3;\n")
+          .append("  if (true && s.length > ")
+          .append(j % 7)
+          .append(") {\n")
+          .append("    result += s.charCodeAt(0);\n")
+          .append("  } else {\n")
+          .append("    result -= 1;\n")
+          .append("  }\n");
+      if (fileIndex > 0) {
+        sb.append("  result += new Class")
+            .append(fileIndex - 1)
+            .append("(a).m")
+            .append(j)
+            .append("(result, 'c' + s);\n");
+      }
+      sb.append("  return result;\n};\n\n");
+      if (j % 2 == 0) {
+        sb.append("function unused")
+            .append(fileIndex)
+            .append('_')
+            .append(j)
+            .append("() {\n  var tmp = '")
+            .append(j)
+            .append("';\n  return tmp + tmp;\n}\n\n");
+      }
+    }
+    sb.append("console.log(new ")
+        .append(className)
+        .append('(')
+        .append(fileIndex)
+        .append(").m0(1, 'x'));\n");
+    return sb.toString();
+  }
+
+  private static ImmutableList<SourceFile> readDirectory(Path directory) {
+    if (!Files.isDirectory(directory)) {
+      throw new IllegalStateException(
+          directory.toAbsolutePath() + " not found; run the benchmarks with `bazel run`.");
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths
+          .filter(path -> path.toString().endsWith(".js"))
+          .sorted()
+          .map(path -> SourceFile.fromPath(path, UTF_8))
+          .collect(toImmutableList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private BenchmarkFixtures() {}
+}
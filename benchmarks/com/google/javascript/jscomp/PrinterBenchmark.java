@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.debugging.sourcemap.SourceMapGeneratorV3;
+import com.google.javascript.jscomp.BenchmarkFixtures.Corpus;
+import com.google.javascript.rhino.Node;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CodePrinter}, with and without a {@link SourceMapGeneratorV3} recording
+ * mappings, and the encoding of a finished source map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PrinterBenchmark {
+
+  @Param({"SYNTHETIC_SMALL", "SYNTHETIC_LARGE", "RUNTIME_LIBRARY"})
+  public Corpus corpus;
+
+  private CompilerOptions options;
+  private Node jsRoot;
+  private SourceMap populatedSourceMap;
+
+  @Setup
+  public void setUp() {
+    // Printing does not modify the AST, so all invocations share one parse.
+    Compiler compiler = BenchmarkFixtures.parse(ImmutableList.of(), corpus.load());
+    options = compiler.getOptions();
+    jsRoot = compiler.getJsRoot();
+    populatedSourceMap = SourceMap.Format.V3.getInstance();
+    new CodePrinter.Builder(jsRoot)
+        .setCompilerOptions(options)
+        .setSourceMap(populatedSourceMap)
+        .build();
+  }
+
+  @Benchmark
+  public String print() {
+    return new CodePrinter.Builder(jsRoot).setCompilerOptions(options).build();
+  }
+
+  @Benchmark
+  public String prettyPrint() {
+    return new CodePrinter.Builder(jsRoot)
+        .setCompilerOptions(options)
+        .setPrettyPrint(true)
+        .build();
+  }
+
+  @Benchmark
+  public String printWithSourceMap() throws IOException {
+    SourceMap sourceMap = SourceMap.Format.V3.getInstance();
+    String code =
+        new CodePrinter.Builder(jsRoot)
+            .setCompilerOptions(options)
+            .setSourceMap(sourceMap)
+            .build();
+    StringBuilder out = new StringBuilder(code.length());
+    sourceMap.appendTo(out, "compiled.js");
+    return out.toString();
+  }
+
+  @Benchmark
+  public String encodeSourceMap() throws IOException {
+    StringBuilder out = new StringBuilder();
+    populatedSourceMap.appendTo(out, "compiled.js");
+    return out.toString();
+  }
+}
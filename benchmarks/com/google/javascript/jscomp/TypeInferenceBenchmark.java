@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.BenchmarkFixtures.Corpus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TypedScopeCreator} and {@link TypeInference} over a whole program, as run by the
+ * inferTypes pass.
+ *
+ * <p>Scope creation populates the compiler's type registry, so every invocation starts from a
+ * freshly parsed compiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class TypeInferenceBenchmark {
+
+  @Param({"SYNTHETIC_SMALL", "SYNTHETIC_LARGE", "RUNTIME_LIBRARY"})
+  public Corpus corpus;
+
+  private ImmutableList<SourceFile> externs;
+  private ImmutableList<SourceFile> inputs;
+  private Compiler compiler;
+
+  @Setup(Level.Trial)
+  public void loadInputs() {
+    externs = BenchmarkFixtures.externs();
+    inputs = corpus.load();
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    compiler = BenchmarkFixtures.parse(externs, inputs);
+  }
+
+  @Benchmark
+  public TypedScope inferTypes() {
+    return new TypeInferencePass(
+            compiler, compiler.getReverseAbstractInterpreter(), new TypedScopeCreator(compiler))
+        .inferAllScopes(compiler.getRoot());
+  }
+}
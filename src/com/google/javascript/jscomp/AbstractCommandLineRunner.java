@@ -73,6 +73,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -185,6 +186,13 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
   @GwtIncompatible("Unnecessary")
   private Function<Integer, Void> exitCodeReceiver = SystemExitCodeReceiver.INSTANCE;
 
+  @GwtIncompatible("Unnecessary")
+  private SharedExternsAsts sharedExternsAsts = null;
+
+  /** Source files created while streaming JSON inputs, so their parses can start right away. */
+  @GwtIncompatible("Unnecessary")
+  private final Map<JsonFileSpec, SourceFile> streamedJsonSourceFiles = new HashMap<>();
+
   @GwtIncompatible("Unnecessary")
   private Map<String, String> rootRelativePathsMap = null;
 
@@ -256,6 +264,15 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     this.exitCodeReceiver = checkNotNull(newExitCodeReceiver);
   }
 
+  /**
+   * Sets parsed externs to share with other runners in the same process, so that externs are
+   * only parsed by the first compilation that uses them.
+   */
+  @GwtIncompatible("Unnecessary")
+  public void setSharedExternsAsts(SharedExternsAsts sharedExternsAsts) {
+    this.sharedExternsAsts = checkNotNull(sharedExternsAsts);
+  }
+
   /** Returns whether we're in test mode. */
   @GwtIncompatible("Unnecessary")
   protected boolean isInTestMode() {
@@ -484,6 +501,15 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     return compiler;
   }
 
+  /**
+   * Decoded contents of the bundled externs, keyed by environment and then by the (prefix
+   * stripped) filename. Reading externs.zip is a fixed cost on every compile, so long-lived
+   * processes like {@link CompileServer} only pay it once per environment.
+   */
+  @GwtIncompatible("Unnecessary")
+  private static final Map<CompilerOptions.Environment, ImmutableMap<String, String>>
+      builtinExternsCache = new ConcurrentHashMap<>();
+
   /**
    * @return a mutable list
    * @throws IOException
@@ -491,10 +517,30 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
   @GwtIncompatible("Unnecessary")
   public static List<SourceFile> getBuiltinExterns(CompilerOptions.Environment env)
       throws IOException {
+    ImmutableMap<String, String> externsCode = builtinExternsCache.get(env);
+    if (externsCode == null) {
+      externsCode = readBuiltinExterns(env);
+      builtinExternsCache.putIfAbsent(env, externsCode);
+    }
+    Map<String, SourceFile> mapFromExternsZip = new HashMap<>();
+    for (Map.Entry<String, String> entry : externsCode.entrySet()) {
+      String filename = entry.getKey();
+      mapFromExternsZip.put(
+          filename,
+          // Give the files an odd prefix, so that they do not conflict
+          // with the user's files.
+          SourceFile.fromCode("externs.zip//" + filename, entry.getValue()));
+    }
+    return DefaultExterns.prepareExterns(env, mapFromExternsZip);
+  }
+
+  @GwtIncompatible("Unnecessary")
+  private static ImmutableMap<String, String> readBuiltinExterns(CompilerOptions.Environment env)
+      throws IOException {
     try (InputStream input = getExternsInput()) {
       ZipInputStream zip = new ZipInputStream(input);
       String envPrefix = Ascii.toLowerCase(env.toString()) + "/";
-      Map<String, SourceFile> mapFromExternsZip = new HashMap<>();
+      ImmutableMap.Builder<String, String> externsCode = ImmutableMap.builder();
       for (ZipEntry entry = null; (entry = zip.getNextEntry()) != null; ) {
         String filename = entry.getName();
 
@@ -510,14 +556,10 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
         BufferedInputStream entryStream =
             new BufferedInputStream(ByteStreams.limit(zip, entry.getSize()));
-        mapFromExternsZip.put(
-            filename,
-            SourceFile.fromInputStream(
-                // Give the files an odd prefix, so that they do not conflict
-                // with the user's files.
-                "externs.zip//" + filename, entryStream, UTF_8));
+        externsCode.put(
+            filename, new String(ByteStreams.toByteArray(entryStream), UTF_8));
       }
-      return DefaultExterns.prepareExterns(env, mapFromExternsZip);
+      return externsCode.build();
     }
   }
 
@@ -564,14 +606,33 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
 
   @GwtIncompatible("Unnecessary")
   public List<JsonFileSpec> parseJsonFilesFromInputStream() throws IOException {
+    return parseJsonFilesFromInputStream(/* parseAhead= */ null);
+  }
+
+  /**
+   * Reads the JSON encoded input files, submitting each one to {@code parseAhead} as soon as it is
+   * decoded so that parsing overlaps with reading the rest of the stream.
+   */
+  @GwtIncompatible("Unnecessary")
+  private List<JsonFileSpec> parseJsonFilesFromInputStream(@Nullable ParseAhead parseAhead)
+      throws IOException {
     List<JsonFileSpec> jsonFiles = new ArrayList<>();
     try (JsonReader reader = new JsonReader(new InputStreamReader(this.in, inputCharset))) {
       reader.beginArray();
       while (reader.hasNext()) {
         JsonFileSpec jsonFile = gson.fromJson(reader, JsonFileSpec.class);
         jsonFiles.add(jsonFile);
+        if (parseAhead != null) {
+          SourceFile sourceFile = SourceFile.fromCode(jsonFile.getPath(), jsonFile.getSrc());
+          streamedJsonSourceFiles.put(jsonFile, sourceFile);
+          parseAhead.submit(sourceFile);
+        }
       }
       reader.endArray();
+    } finally {
+      if (parseAhead != null) {
+        parseAhead.finishSubmitting();
+      }
     }
     return jsonFiles;
   }
@@ -691,7 +752,11 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
     if (jsonFiles != null) {
       for (JsonFileSpec jsonFile : jsonFiles) {
-        inputs.add(SourceFile.fromCode(jsonFile.getPath(), jsonFile.getSrc()));
+        SourceFile streamedFile = streamedJsonSourceFiles.remove(jsonFile);
+        inputs.add(
+            streamedFile != null
+                ? streamedFile
+                : SourceFile.fromCode(jsonFile.getPath(), jsonFile.getSrc()));
       }
     }
 
@@ -1056,8 +1121,30 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
     checkState(compiler.getOptions().outputJs == OutputJs.NORMAL);
 
-    String code = module == null ? compiler.toSource() : compiler.toSource(module);
-    writeOutput(out, compiler, code, wrapper, codePlaceholder, escaper, filename);
+    if (escaper != null) {
+      // Escaping needs the complete code.
+      String code = module == null ? compiler.toSource() : compiler.toSource(module);
+      writeOutput(out, compiler, code, wrapper, codePlaceholder, escaper, filename);
+      return;
+    }
+
+    // Write the code as it is generated rather than building it into a string first, as the
+    // output can be very large.
+    int pos = wrapper.indexOf(codePlaceholder);
+    String prefix = pos == -1 ? "" : wrapper.substring(0, pos);
+    out.append(prefix);
+    compiler.toSource(out, module);
+    if (pos != -1) {
+      int suffixStart = pos + codePlaceholder.length();
+      out.append(wrapper, suffixStart, wrapper.length());
+      // If we have a source map, adjust its offsets to match
+      // the code WITHIN the wrapper.
+      if (compiler.getSourceMap() != null) {
+        compiler.getSourceMap().setWrapperPrefix(prefix);
+      }
+    }
+    // Make sure we always end output with a line feed.
+    out.append('\n');
   }
 
   /**
@@ -1158,6 +1245,9 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     compiler = createCompiler();
     B options = createOptions();
     setRunOptions(options);
+    if (sharedExternsAsts != null) {
+      options.setSharedExternsAsts(sharedExternsAsts);
+    }
 
     List<SourceFile> externs = createExterns(options);
     List<JSModule> modules = null;
@@ -1184,9 +1274,20 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
     }
     List<JsonFileSpec> jsonFiles = null;
 
+    compiler.initOptions(options);
+
     if (config.jsonStreamMode == JsonStreamMode.IN ||
         config.jsonStreamMode == JsonStreamMode.BOTH) {
-      jsonFiles = parseJsonFilesFromInputStream();
+      // Sources that would be read from the parse cache are not worth parsing ahead.
+      ParseAhead parseAhead = null;
+      if (options.numParallelThreads > 1 && options.parseCacheDirectory == null) {
+        parseAhead =
+            new ParseAhead(
+                compiler.getParserConfig(AbstractCompiler.ConfigContext.DEFAULT),
+                options.numParallelThreads);
+        compiler.setParseAhead(parseAhead);
+      }
+      jsonFiles = parseJsonFilesFromInputStream(parseAhead);
 
       ImmutableMap.Builder<String, SourceMapInput> inputSourceMaps
           = new ImmutableMap.Builder<>();
@@ -1217,8 +1318,6 @@ public abstract class AbstractCommandLineRunner<A extends Compiler,
       compiler.initWebpackMap(emptyMap);
     }
 
-    compiler.initOptions(options);
-
     List<SourceFile> inputs =
         createSourceInputs(jsModuleSpecs, config.mixedJsSources, jsonFiles, config.moduleRoots);
     if (!jsModuleSpecs.isEmpty()) {
@@ -150,9 +150,16 @@ public abstract class AbstractCompiler implements SourceExcerptProvider, Compile
    */
   abstract void setTypeCheckingHasRun(boolean hasRun);
 
+  /** Records the type dependencies found by the most recent type check. */
+  abstract void setTypeDependencyIndex(TypeDependencyIndex index);
+
   /** Gets the type-checking pass that ran most recently. */
   abstract boolean hasTypeCheckingRun();
 
+  /** Returns the tracker collecting pass statistics, or null if tracing is off. */
+  @Nullable
+  abstract PerformanceTracker getPerformanceTracker();
+
   /**
    * Gets a central registry of type information from the compiled JS.
    */
@@ -403,6 +410,14 @@ public abstract class AbstractCompiler implements SourceExcerptProvider, Compile
    */
   abstract Config getParserConfig(ConfigContext context);
 
+  /** Returns the on-disk cache of parsed ASTs, or null if parse caching is disabled. */
+  @Nullable
+  abstract ParseCache getParseCache();
+
+  /** Returns the sources being parsed ahead of the compilation, or null if there are none. */
+  @Nullable
+  abstract ParseAhead getParseAhead();
+
   /**
    * Normalizes the types of AST nodes in the given tree, and
    * annotates any nodes to which the coding convention applies so that passes
@@ -484,6 +499,12 @@ public abstract class AbstractCompiler implements SourceExcerptProvider, Compile
 
   abstract CompilerOptions getOptions();
 
+  /**
+   * Returns the runner that parallel passes use. It owns a thread pool that is shared by all passes
+   * of the compilation.
+   */
+  abstract ParallelScriptPassRunner getParallelScriptPassRunner();
+
   /**
    * The set of features defined by the input language mode that have not (yet) been transpiled
    * away.
@@ -18,7 +18,6 @@ package com.google.javascript.jscomp;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.ImmutableList;
 import com.google.debugging.sourcemap.FilePosition;
 import com.google.javascript.jscomp.CodePrinter.Builder.CodeGeneratorFactory;
 import com.google.javascript.jscomp.parsing.parser.FeatureSet;
@@ -46,6 +45,12 @@ public final class CodePrinter {
   // version.
 
   private abstract static class MappedCodePrinter extends CodeConsumer {
+    /**
+     * Once this many characters are buffered, the completed lines are written to the output. Only
+     * the current line has to stay in memory, as line cuts never move text across an earlier line.
+     */
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
     private final Deque<Mapping> mappings;
     private final List<Mapping> allMappings;
     // The ordered list of finalized mappings since the last line break. See #reportLineCut.
@@ -55,16 +60,23 @@ public final class CodePrinter {
     private int firstCandidateMappingForCut = 0;
     private final boolean createSrcMap;
     private final SourceMap.DetailLevel sourceMapDetailLevel;
+    // The lengths of the lines written to the output so far. Only tracked for source maps.
+    private final List<Integer> lineLengths;
+    private int flushedLineLength = 0;
+    private final Appendable out;
+    private char lastFlushedChar = '\0';
     protected final StringBuilder code = new StringBuilder(1024);
     protected final int lineLengthThreshold;
     protected int lineLength = 0;
     protected int lineIndex = 0;
 
     MappedCodePrinter(
+        Appendable out,
         int lineLengthThreshold,
         boolean createSrcMap,
         SourceMap.DetailLevel sourceMapDetailLevel) {
       checkState(sourceMapDetailLevel != null);
+      this.out = out;
       this.lineLengthThreshold = lineLengthThreshold <= 0 ? Integer.MAX_VALUE :
         lineLengthThreshold;
       this.createSrcMap = createSrcMap;
@@ -72,6 +84,7 @@ public final class CodePrinter {
       this.mappings = createSrcMap ? new ArrayDeque<Mapping>() : null;
       this.allMappings = createSrcMap ? new ArrayList<Mapping>() : null;
       this.completeMappings = createSrcMap ? new ArrayList<Mapping>() : null;
+      this.lineLengths = createSrcMap ? new ArrayList<Integer>() : null;
     }
 
     /**
@@ -144,11 +157,11 @@ public final class CodePrinter {
     /**
      * Generates the source map from the given code consumer,
      * appending the information it saved to the SourceMap
-     * object given.
+     * object given. Must be called after {@link #flushAll}.
      */
-    void generateSourceMap(String code, SourceMap map) {
+    void generateSourceMap(SourceMap map) {
       if (createSrcMap) {
-        List<Integer> lineLengths = computeLineLengths(code);
+        checkState(code.length() == 0, "Generating a source map before all code was written");
         for (Mapping mapping : allMappings) {
           map.addMapping(
               mapping.node, mapping.start, adjustEndPosition(lineLengths, mapping.end));
@@ -209,13 +222,58 @@ public final class CodePrinter {
       }
     }
 
-    public String getCode() {
-      return code.toString();
+    /**
+     * Returns how much of the buffered code can be written out. Everything before the returned
+     * index must be final.
+     */
+    int getFlushableLength() {
+      return code.lastIndexOf("\n") + 1;
+    }
+
+    /** Writes the completed lines to the output if enough code has been buffered. */
+    final void maybeFlush() {
+      if (code.length() >= FLUSH_THRESHOLD) {
+        int length = getFlushableLength();
+        if (length > 0) {
+          flush(length);
+        }
+      }
+    }
+
+    /** Writes all buffered code to the output. */
+    final void flushAll() {
+      if (code.length() > 0) {
+        flush(code.length());
+      }
     }
 
+    private void flush(int length) {
+      if (createSrcMap) {
+        for (int i = 0; i < length; i++) {
+          if (code.charAt(i) == '\n') {
+            lineLengths.add(flushedLineLength);
+            flushedLineLength = 0;
+          } else {
+            flushedLineLength++;
+          }
+        }
+      }
+      try {
+        out.append(code, 0, length);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      lastFlushedChar = code.charAt(length - 1);
+      code.delete(0, length);
+      onFlushed(length);
+    }
+
+    /** Called after the first {@code length} buffered characters have been written out. */
+    void onFlushed(int length) {}
+
     @Override
     char getLastChar() {
-      return (code.length() > 0) ? code.charAt(code.length() - 1) : '\0';
+      return (code.length() > 0) ? code.charAt(code.length() - 1) : lastFlushedChar;
     }
 
     protected final int getCurrentCharIndex() {
@@ -226,20 +284,6 @@ public final class CodePrinter {
       return lineIndex;
     }
 
-    /** Calculates length of each line in compiled code. */
-    private static ImmutableList<Integer> computeLineLengths(String code) {
-      ImmutableList.Builder<Integer> builder = ImmutableList.<Integer>builder();
-      int lineStartPos = 0;
-      int lineEndPos = code.indexOf('\n');
-      while (lineEndPos > -1) {
-        builder.add(lineEndPos - lineStartPos);
-        // Next line starts where current line ends + 1 to skip "\n" character.
-        lineStartPos = lineEndPos + 1;
-        lineEndPos = code.indexOf('\n', lineStartPos);
-      }
-      return builder.build();
-    }
-
     /**
      * Adjusts end position of a mapping. End position points to a column *after* the last character
      * that is covered by a mapping. And if it's end of the line there are 2 possibilities: either
@@ -283,6 +327,7 @@ public final class CodePrinter {
     private int indent = 0;
 
     /**
+     * @param out The output to which completed lines are written.
      * @param lineLengthThreshold The length of a line after which we force
      *                            a newline when possible.
      * @param createSourceMap Whether to generate source map data.
@@ -290,10 +335,11 @@ public final class CodePrinter {
      *     into the source map.
      */
     private PrettyCodePrinter(
+        Appendable out,
         int lineLengthThreshold,
         boolean createSourceMap,
         SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
+      super(out, lineLengthThreshold, createSourceMap, sourceMapDetailLevel);
     }
 
     /**
@@ -366,6 +412,7 @@ public final class CodePrinter {
       code.append('\n');
       lineIndex++;
       lineLength = 0;
+      maybeFlush();
     }
 
     @Override
@@ -565,6 +612,7 @@ public final class CodePrinter {
     private int preferredBreakPosition = 0;
 
   /**
+   * @param out The output to which completed lines are written.
    * @param lineBreak break the lines a bit more aggressively
    * @param lineLengthThreshold The length of a line after which we force
    *                            a newline when possible.
@@ -573,10 +621,10 @@ public final class CodePrinter {
    * @param sourceMapDetailLevel A filter to control which nodes get mapped into
    *     the source map.
    */
-    private CompactCodePrinter(boolean lineBreak,
+    private CompactCodePrinter(Appendable out, boolean lineBreak,
         boolean preferLineBreakAtEndOfFile, int lineLengthThreshold,
         boolean createSrcMap, SourceMap.DetailLevel sourceMapDetailLevel) {
-      super(lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
+      super(out, lineLengthThreshold, createSrcMap, sourceMapDetailLevel);
       this.lineBreak = lineBreak;
       this.preferLineBreakAtEndOfFile = preferLineBreakAtEndOfFile;
     }
@@ -594,6 +642,7 @@ public final class CodePrinter {
       lineLength = 0;
       lineIndex++;
       lineStartPosition = code.length();
+      maybeFlush();
     }
 
     @Override
@@ -637,6 +686,7 @@ public final class CodePrinter {
         lineIndex++;
         lineLength -= (preferredBreakPosition - lineStartPosition);
         lineStartPosition = preferredBreakPosition + 1; // Jump over the inserted newline.
+        maybeFlush();
       } else {
         startNewLine();
       }
@@ -647,6 +697,21 @@ public final class CodePrinter {
       preferredBreakPosition = code.length();
     }
 
+    /**
+     * Template literals can contain newlines that do not start a new line for the purposes of line
+     * cutting, so only the code before the current line is final.
+     */
+    @Override
+    int getFlushableLength() {
+      return lineStartPosition;
+    }
+
+    @Override
+    void onFlushed(int length) {
+      lineStartPosition -= length;
+      preferredBreakPosition -= length;
+    }
+
     @Override
     void endFile() {
       super.endFile();
@@ -770,12 +835,34 @@ public final class CodePrinter {
      * Generates the source code and returns it.
      */
     public String build() {
+      StringBuilder sb = new StringBuilder();
+      print(sb);
+      return sb.toString();
+    }
+
+    /**
+     * Generates the source code and writes it to {@code out} a few lines at a time, so the whole
+     * output is never held in memory at once.
+     */
+    public void build(Appendable out) throws IOException {
+      try {
+        print(out);
+      } catch (RuntimeException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+    private void print(Appendable out) {
       if (root == null) {
         throw new IllegalStateException(
             "Cannot build without root node being specified");
       }
 
-      return toSource(
+      toSource(
+          out,
           root,
           Format.fromOptions(options, outputTypes, prettyPrint),
           options,
@@ -806,8 +893,9 @@ public final class CodePrinter {
     }
   }
 
-  /** Converts a tree to JS code */
-  private static String toSource(
+  /** Converts a tree to JS code, writing it to {@code out} */
+  private static void toSource(
+      Appendable out,
       Node root,
       Format outputFormat,
       CompilerOptions options,
@@ -822,12 +910,14 @@ public final class CodePrinter {
     MappedCodePrinter mcp =
         outputFormat == Format.COMPACT
         ? new CompactCodePrinter(
+            out,
             lineBreak,
             options.preferLineBreakAtEndOfFile,
             options.lineLengthThreshold,
             createSourceMap,
             options.sourceMapDetailLevel)
         : new PrettyCodePrinter(
+            out,
             options.lineLengthThreshold,
             createSourceMap,
             options.sourceMapDetailLevel);
@@ -842,13 +932,10 @@ public final class CodePrinter {
 
     cg.add(root);
     mcp.endFile();
-
-    String code = mcp.getCode();
+    mcp.flushAll();
 
     if (createSourceMap) {
-      mcp.generateSourceMap(code, sourceMap);
+      mcp.generateSourceMap(sourceMap);
     }
-
-    return code;
   }
 }
@@ -474,6 +474,16 @@ public class CommandLineRunner extends
         usage = "Use multiple threads to parallelize parts of the compilation.")
     private int numParallelThreads = 1;
 
+    @Option(
+        name = "--parse_cache_dir",
+        hidden = true,
+        usage =
+            "Directory in which to cache parsed inputs between compilations. Inputs whose "
+                + "content has not changed are loaded from the cache instead of being reparsed. "
+                + "Cached ASTs are compiled as if they had been parsed, so only users trusted to "
+                + "write the inputs should be able to write to this directory.")
+    private String parseCacheDir = "";
+
     @Option(name = "--checks_only",
         aliases = {"--checks-only"},
         handler = BooleanOptionHandler.class,
@@ -1822,6 +1832,10 @@ public class CommandLineRunner extends
 
     options.setNumParallelThreads(flags.numParallelThreads);
 
+    if (!flags.parseCacheDir.isEmpty()) {
+      options.setParseCacheDirectory(flags.parseCacheDir);
+    }
+
     options.setEnvironment(flags.environment);
 
     options.setChecksOnly(flags.checksOnly);
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Function;
+import com.google.common.io.BaseEncoding;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * A long-lived compiler process that runs many {@link CommandLineRunner} invocations in a single
+ * JVM. Keeping the process around avoids paying JVM startup, externs.zip decoding and JIT warmup
+ * on every compile.
+ *
+ * <p>Requests are newline-delimited JSON objects, read from stdin or from a local socket:
+ *
+ * <pre>
+ * {"args": ["--js", "a.js", "--compilation_level", "SIMPLE"], "stdin": "optional"}
+ * </pre>
+ *
+ * <p>Each request produces a single line JSON response:
+ *
+ * <pre>
+ * {"exitCode": 0, "stdout": "...", "stderr": "..."}
+ * </pre>
+ *
+ * <p>A request can read and write any file the server can, so the socket is only bound to the
+ * loopback interface, and a socket server also requires a token that it generates at startup. It
+ * prints {@code {"port": N, "token": "..."}} as its first line of output, and every request on
+ * the socket must carry the token in a {@code "token"} field. A request with a missing or wrong
+ * token gets an error response and its connection is closed. Other local users can still connect
+ * to the port, so the token must be kept as private as the files being compiled.
+ *
+ * <p>Requests are processed one at a time since {@link CommandLineRunner} flag parsing is not
+ * thread-safe. Each request gets a fresh {@link Compiler}; only immutable, process-wide data such
+ * as the decoded builtin externs is shared between requests.
+ */
+@GwtIncompatible("Unnecessary")
+public final class CompileServer {
+
+  private static final Logger logger = Logger.getLogger(CompileServer.class.getName());
+
+  /** A single compile request. */
+  static final class Request {
+    String[] args;
+    String stdin;
+    String token;
+  }
+
+  /** The result of running a single {@link Request}. */
+  static final class Response {
+    int exitCode;
+    String stdout;
+    String stderr;
+  }
+
+  private final Gson gson = new Gson();
+
+  /** The token every request must carry, or null if requests are not authenticated. */
+  @Nullable private final String token;
+
+  /** Externs are usually the same for every request, so they are parsed once per server. */
+  private final SharedExternsAsts sharedExterns = new SharedExternsAsts();
+
+  /** Creates a server that does not authenticate requests, for use over stdin. */
+  CompileServer() {
+    this(null);
+  }
+
+  CompileServer(@Nullable String token) {
+    this.token = token;
+  }
+
+  /** Runs a single request to completion, capturing everything the runner writes. */
+  Response handle(Request request) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    byte[] stdin = request.stdin == null ? new byte[0] : request.stdin.getBytes(UTF_8);
+    InputStream in = new ByteArrayInputStream(stdin);
+    Response response = new Response();
+    try (PrintStream outStream = new PrintStream(out, true, UTF_8.name());
+        PrintStream errStream = new PrintStream(err, true, UTF_8.name())) {
+      String[] args = request.args == null ? new String[0] : request.args;
+      CommandLineRunner runner = new CommandLineRunner(args, in, outStream, errStream);
+      runner.setSharedExternsAsts(sharedExterns);
+      if (runner.shouldRunCompiler()) {
+        runner.setExitCodeReceiver(
+            new Function<Integer, Void>() {
+              @Override
+              public Void apply(Integer exitCode) {
+                response.exitCode = exitCode;
+                return null;
+              }
+            });
+        runner.run();
+      } else {
+        response.exitCode = runner.hasErrors() ? -1 : 0;
+      }
+    } catch (IOException e) {
+      // Only thrown for an unsupported encoding, which cannot happen for UTF-8.
+      throw new AssertionError(e);
+    }
+    response.stdout = new String(out.toByteArray(), UTF_8);
+    response.stderr = new String(err.toByteArray(), UTF_8);
+    return response;
+  }
+
+  /**
+   * Serves requests read from {@code input} until it is exhausted, writing one response line per
+   * request to {@code output}.
+   */
+  void serve(Reader input, Writer output) throws IOException {
+    BufferedReader reader = new BufferedReader(input);
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      Request request;
+      try {
+        request = gson.fromJson(line, Request.class);
+      } catch (JsonParseException e) {
+        writeResponse(errorResponse("Malformed request: " + e.getMessage()), output);
+        continue;
+      }
+      if (request == null) {
+        // Gson maps the JSON literal null to a null request.
+        writeResponse(errorResponse("Malformed request: expected a JSON object"), output);
+        continue;
+      }
+      if (!isAuthorized(request)) {
+        writeResponse(errorResponse("Unauthorized request: missing or wrong token"), output);
+        return;
+      }
+      writeResponse(handle(request), output);
+    }
+  }
+
+  private boolean isAuthorized(Request request) {
+    return token == null
+        || (request.token != null
+            && MessageDigest.isEqual(token.getBytes(UTF_8), request.token.getBytes(UTF_8)));
+  }
+
+  private static Response errorResponse(String message) {
+    Response response = new Response();
+    response.exitCode = -1;
+    response.stdout = "";
+    response.stderr = message;
+    return response;
+  }
+
+  private void writeResponse(Response response, Writer output) throws IOException {
+    output.write(gson.toJson(response));
+    output.write('\n');
+    output.flush();
+  }
+
+  /** Accepts connections on {@code serverSocket}, serving each connection in turn. */
+  void serve(ServerSocket serverSocket) throws IOException {
+    while (true) {
+      try (Socket socket = serverSocket.accept();
+          InputStream in = socket.getInputStream();
+          OutputStream out = socket.getOutputStream()) {
+        serve(new InputStreamReader(in, UTF_8), new OutputStreamWriter(out, UTF_8));
+      } catch (IOException e) {
+        logger.log(Level.WARNING, "Dropped connection", e);
+      }
+    }
+  }
+
+  /** Returns a random token that is hard to guess. */
+  static String newToken() {
+    byte[] bytes = new byte[32];
+    new SecureRandom().nextBytes(bytes);
+    return BaseEncoding.base16().lowerCase().encode(bytes);
+  }
+
+  /**
+   * Starts the server. With no arguments requests are read from stdin; with {@code --port=N} the
+   * server listens on the loopback interface instead, and prints the port and the token that
+   * requests must carry. {@code --port=0} picks a free port.
+   */
+  public static void main(String[] args) throws IOException {
+    // Same as CommandLineRunner: keep pass logging out of the captured error streams.
+    Logger.getLogger(PhaseOptimizer.class.getName()).setLevel(Level.OFF);
+    if (args.length == 1 && args[0].startsWith("--port=")) {
+      int port = Integer.parseInt(args[0].substring("--port=".length()));
+      String token = newToken();
+      try (ServerSocket serverSocket =
+          new ServerSocket(port, /* backlog= */ 50, InetAddress.getLoopbackAddress())) {
+        System.out.println(
+            "{\"port\": " + serverSocket.getLocalPort() + ", \"token\": \"" + token + "\"}");
+        System.out.flush();
+        new CompileServer(token).serve(serverSocket);
+      }
+    } else if (args.length == 0) {
+      new CompileServer().serve(
+          new InputStreamReader(System.in, UTF_8), new OutputStreamWriter(System.out, UTF_8));
+    } else {
+      System.err.println("Usage: CompileServer [--port=N]");
+      System.exit(-1);
+    }
+  }
+}
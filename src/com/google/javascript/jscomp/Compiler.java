@@ -74,6 +74,7 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Serializable;
 import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -225,6 +226,8 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
   private ColorRegistry colorRegistry;
   private volatile Config parserConfig = null;
   private volatile Config externsParserConfig = null;
+  private volatile ParseCache parseCache = null;
+  private ParseAhead parseAhead = null;
 
   private ReverseAbstractInterpreter abstractInterpreter;
   private TypeValidator typeValidator;
@@ -239,6 +242,10 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
 
   private boolean typeCheckingHasRun = false;
 
+  // Set by the type checker when CompilerOptions#recordTypeDependencies is on. Not part of the
+  // saved CompilerState; it is cheap to rebuild and only meaningful for this compilation.
+  @Nullable private TypeDependencyIndex typeDependencyIndex = null;
+
   // This error reporter gets the messages from the current Rhino parser or TypeRegistry.
   private final ErrorReporter oldErrorReporter =
       RhinoErrorReporter.forOldRhino(this);
@@ -253,6 +260,9 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
 
   private final CompilerExecutor compilerExecutor = createCompilerExecutor();
 
+  /** Runs parallel passes. Created on first use and shut down at the end of the compilation. */
+  private ParallelScriptPassRunner parallelScriptPassRunner;
+
   /**
    * Logger for the whole com.google.javascript.jscomp domain -
    * setting configuration for this logger affects all loggers
@@ -698,6 +708,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
         performPostCompilationTasks();
       }
     } finally {
+      shutdownParallelScriptPassRunner();
       generateReport();
     }
     return getResult();
@@ -753,6 +764,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
         performPostCompilationTasks();
       }
     } finally {
+      shutdownParallelScriptPassRunner();
       generateReport();
     }
     return getResult();
@@ -867,6 +879,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
    * Performs all the bookkeeping required at the end of a compilation.
    */
   private void performPostCompilationTasksInternal() {
+    shutdownParallelScriptPassRunner();
     if (options.devMode == DevMode.START_AND_END) {
       runValidityCheck();
     }
@@ -1037,20 +1050,25 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
   }
 
   void check() {
-    runCustomPasses(CustomPassExecutionTime.BEFORE_CHECKS);
+    CompilerEvents.Span phaseEvent = CompilerEvents.beginPhase("check");
+    try {
+      runCustomPasses(CustomPassExecutionTime.BEFORE_CHECKS);
+
+      // We are currently only interested in check-passes for progress reporting
+      // as it is used for IDEs, that's why the maximum progress is set to 1.0.
+      phaseOptimizer = createPhaseOptimizer().withProgress(
+          new PhaseOptimizer.ProgressRange(getProgress(), 1.0));
+      phaseOptimizer.consume(getPassConfig().getChecks());
+      phaseOptimizer.process(externsRoot, jsRoot);
+      if (hasErrors()) {
+        return;
+      }
 
-    // We are currently only interested in check-passes for progress reporting
-    // as it is used for IDEs, that's why the maximum progress is set to 1.0.
-    phaseOptimizer = createPhaseOptimizer().withProgress(
-        new PhaseOptimizer.ProgressRange(getProgress(), 1.0));
-    phaseOptimizer.consume(getPassConfig().getChecks());
-    phaseOptimizer.process(externsRoot, jsRoot);
-    if (hasErrors()) {
-      return;
+      runCustomPasses(CustomPassExecutionTime.BEFORE_OPTIMIZATIONS);
+      phaseOptimizer = null;
+    } finally {
+      phaseEvent.end();
     }
-
-    runCustomPasses(CustomPassExecutionTime.BEFORE_OPTIMIZATIONS);
-    phaseOptimizer = null;
   }
 
   @Override
@@ -1487,6 +1505,20 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     return this.typeCheckingHasRun;
   }
 
+  @Override
+  void setTypeDependencyIndex(TypeDependencyIndex index) {
+    this.typeDependencyIndex = index;
+  }
+
+  /**
+   * Returns the type dependencies recorded by the type checker, or null if {@link
+   * CompilerOptions#setRecordTypeDependencies} was not set or type checking has not run.
+   */
+  @Nullable
+  public TypeDependencyIndex getTypeDependencyIndex() {
+    return typeDependencyIndex;
+  }
+
   @Override
   // Only used by jsdev
   public TypedScopeCreator getTypedScopeCreator() {
@@ -1595,6 +1627,12 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     throw new RuntimeException("Can't ask for type mismatches before type checking.");
   }
 
+  @Override
+  @Nullable
+  PerformanceTracker getPerformanceTracker() {
+    return tracker;
+  }
+
   public void maybeSetTracker() {
     if (!options.getTracerMode().isOn()) {
       return;
@@ -1624,6 +1662,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     scriptNodeByFilename.clear();
 
     Tracer tracer = newTracer(PassNames.PARSE_INPUTS);
+    CompilerEvents.Span phaseEvent = CompilerEvents.beginPhase("parse");
     beforePass(PassNames.PARSE_INPUTS);
 
     try {
@@ -1676,7 +1715,8 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
                 moduleGraph.getAllInputs(),
                 moduleResolverFactory,
                 ModuleLoader.PathResolver.RELATIVE,
-                options.getPathEscaper());
+                options.getPathEscaper(),
+                options.moduleResolutionCache);
       } else {
         // Use an empty module loader if we're not actually dealing with modules.
         this.moduleLoader = ModuleLoader.EMPTY;
@@ -1775,6 +1815,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
       return externAndJsRoot;
     } finally {
       afterPass(PassNames.PARSE_INPUTS);
+      phaseEvent.end();
       stopTracer(tracer, PassNames.PARSE_INPUTS);
     }
   }
@@ -2158,11 +2199,47 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
    */
   @Override
   public String toSource() {
-    return runInCompilerThread(
+    CodeBuilder cb = new CodeBuilder();
+    toSource(cb);
+    return cb.toString();
+  }
+
+  /**
+   * Converts the parse tree for a module back to JS code.
+   */
+  public String toSource(final JSModule module) {
+    CodeBuilder cb = new CodeBuilder();
+    toSource(cb, module);
+    return cb.toString();
+  }
+
+  /**
+   * Writes the JS code for the main parse tree, or for {@code module} if it is not null, to {@code
+   * out} while it is generated. Unlike {@link #toSource()}, the complete output is never held in
+   * memory, which matters for very large outputs.
+   */
+  public void toSource(Appendable out, @Nullable JSModule module) throws IOException {
+    CodeBuilder cb = new CodeBuilder(out);
+    try {
+      if (module == null) {
+        toSource(cb);
+      } else {
+        toSource(cb, module);
+      }
+    } catch (RuntimeException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private void toSource(CodeBuilder cb) {
+    runInCompilerThread(
         () -> {
           Tracer tracer = newTracer("toSource");
+          CompilerEvents.Span phaseEvent = CompilerEvents.beginPhase("print");
           try {
-            CodeBuilder cb = new CodeBuilder();
             if (jsRoot != null) {
               int i = 0;
               if (options.shouldPrintExterns()) {
@@ -2178,33 +2255,26 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
                 toSource(cb, i++, scriptNode);
               }
             }
-            return cb.toString();
+            return null;
           } finally {
+            phaseEvent.end();
             stopTracer(tracer, "toSource");
           }
         });
   }
 
-  /**
-   * Converts the parse tree for a module back to JS code.
-   */
-  public String toSource(final JSModule module) {
-    return runInCompilerThread(
+  private void toSource(CodeBuilder cb, JSModule module) {
+    runInCompilerThread(
         () -> {
           List<CompilerInput> inputs = module.getInputs();
-          int numInputs = inputs.size();
-          if (numInputs == 0) {
-            return "";
-          }
-          CodeBuilder cb = new CodeBuilder();
-          for (int i = 0; i < numInputs; i++) {
+          for (int i = 0; i < inputs.size(); i++) {
             Node scriptNode = inputs.get(i).getAstRoot(Compiler.this);
             if (scriptNode == null) {
               throw new IllegalArgumentException("Bad module: " + module.getName());
             }
             toSource(cb, i, scriptNode);
           }
-          return cb.toString();
+          return null;
         });
   }
 
@@ -2221,7 +2291,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     runInCompilerThread(
         () -> {
           if (options.printInputDelimiter) {
-            if ((cb.getLength() > 0) && !cb.endsWith("\n")) {
+            if ((cb.getLength() > 0) && cb.getLastChar() != '\n') {
               cb.append("\n"); // Make sure that the label starts on a new line
             }
             checkState(root.isScript());
@@ -2256,16 +2326,15 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
 
           // if LanguageMode is strict, only print 'use strict'
           // for the first input file
-          String code = toSource(root, sourceMap, inputSeqNum == 0);
-          if (!code.isEmpty()) {
-            cb.append(code);
-
+          int startLength = cb.getLength();
+          newCodePrinter(root, sourceMap, inputSeqNum == 0).build(cb);
+          int length = cb.getLength() - startLength;
+          if (length > 0) {
             // In order to avoid parse ambiguity when files are concatenated
             // together, all files should end in a semi-colon. Do a quick
             // heuristic check if there's an obvious semi-colon already there.
-            int length = code.length();
-            char lastChar = code.charAt(length - 1);
-            char secondLastChar = length >= 2 ? code.charAt(length - 2) : '\0';
+            char lastChar = cb.getLastChar();
+            char secondLastChar = length >= 2 ? cb.getSecondLastChar() : '\0';
             boolean hasSemiColon = lastChar == ';' || (lastChar == '\n' && secondLastChar == ';');
             if (!hasSemiColon) {
               cb.append(";");
@@ -2289,13 +2358,17 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
    * Generates JavaScript source code for an AST.
    */
   private String toSource(Node n, SourceMap sourceMap, boolean firstOutput) {
+    return newCodePrinter(n, sourceMap, firstOutput).build();
+  }
+
+  private CodePrinter.Builder newCodePrinter(Node n, SourceMap sourceMap, boolean firstOutput) {
     CodePrinter.Builder builder = new CodePrinter.Builder(n);
     builder.setTypeRegistry(getTypeRegistry());
     builder.setCompilerOptions(options);
     builder.setSourceMap(sourceMap);
     builder.setTagAsTypeSummary(!n.isFromExterns() && options.shouldGenerateTypedExterns());
     builder.setTagAsStrict(firstOutput && options.shouldEmitUseStrict());
-    return builder.build();
+    return builder;
   }
 
   /**
@@ -2305,6 +2378,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     return runInCompilerThread(
         () -> {
           Tracer tracer = newTracer("toSourceArray");
+          CompilerEvents.Span phaseEvent = CompilerEvents.beginPhase("print");
           try {
             int numInputs = moduleGraph.getInputCount();
             String[] sources = new String[numInputs];
@@ -2319,6 +2393,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
             }
             return sources;
           } finally {
+            phaseEvent.end();
             stopTracer(tracer, "toSourceArray");
           }
         });
@@ -2355,49 +2430,108 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
   /**
    * Stores a buffer of text to which more can be appended.  This is just like a
    * StringBuilder except that we also track the number of lines.
-   */
-  public static class CodeBuilder {
-    private final StringBuilder sb = new StringBuilder();
+   *
+   * <p>A CodeBuilder created with an output writes all text straight through to it instead of
+   * buffering it. Errors writing to the output are rethrown wrapped in a RuntimeException.
+   */
+  public static class CodeBuilder implements Appendable {
+    @Nullable private final StringBuilder sb;
+    private final Appendable out;
+    private int length = 0;
+    private char lastChar = '\0';
+    private char secondLastChar = '\0';
     private int lineCount = 0;
     private int colCount = 0;
     private final Set<String> uniqueLicenses = new HashSet<>();
 
+    public CodeBuilder() {
+      this.sb = new StringBuilder();
+      this.out = sb;
+    }
+
+    /** Creates a CodeBuilder that writes its text to {@code out}. */
+    public CodeBuilder(Appendable out) {
+      this.sb = null;
+      this.out = out;
+    }
+
     /** Removes all text, but leaves the line count unchanged. */
     void reset() {
+      checkState(sb != null, "Cannot reset a CodeBuilder that writes to an output");
       sb.setLength(0);
+      length = 0;
+      lastChar = '\0';
+      secondLastChar = '\0';
     }
 
     /** Appends the given string to the text buffer. */
     CodeBuilder append(String str) {
-      sb.append(str);
+      return append(str, 0, str.length());
+    }
+
+    @Override
+    public CodeBuilder append(CharSequence csq) {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public CodeBuilder append(CharSequence csq, int start, int end) {
+      if (start == end) {
+        return this;
+      }
+      try {
+        out.append(csq, start, end);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
 
       // Adjust the line and column information for the new text.
-      int index = -1;
-      int lastIndex = index;
-      while ((index = str.indexOf('\n', index + 1)) >= 0) {
-        ++lineCount;
-        lastIndex = index;
+      int lastIndex = -1;
+      for (int i = start; i < end; i++) {
+        if (csq.charAt(i) == '\n') {
+          ++lineCount;
+          lastIndex = i;
+        }
       }
 
       if (lastIndex == -1) {
         // No new lines, append the new characters added.
-        colCount += str.length();
+        colCount += end - start;
       } else {
-        colCount = str.length() - (lastIndex + 1);
+        colCount = end - (lastIndex + 1);
       }
 
+      length += end - start;
+      secondLastChar = end - start >= 2 ? csq.charAt(end - 2) : lastChar;
+      lastChar = csq.charAt(end - 1);
       return this;
     }
 
+    @Override
+    public CodeBuilder append(char c) {
+      return append(String.valueOf(c));
+    }
+
     /** Returns all text in the text buffer. */
     @Override
     public String toString() {
+      checkState(sb != null, "The text of this CodeBuilder was written to an output");
       return sb.toString();
     }
 
     /** Returns the length of the text buffer. */
     public int getLength() {
-      return sb.length();
+      return length;
+    }
+
+    /** Returns the last character of the text, or '\0' if there is none. */
+    char getLastChar() {
+      return lastChar;
+    }
+
+    /** Returns the second to last character of the text, or '\0' if there is none. */
+    char getSecondLastChar() {
+      return secondLastChar;
     }
 
     /** Returns the (zero-based) index of the last line in the text buffer. */
@@ -2410,12 +2544,6 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
       return colCount;
     }
 
-    /** Determines whether the text ends with the given suffix. */
-    boolean endsWith(String suffix) {
-      return (sb.length() > suffix.length())
-          && suffix.equals(sb.substring(sb.length() - suffix.length()));
-    }
-
     /** Adds a license and returns whether it is unique (has yet to be encountered). */
     boolean addLicense(String license) {
       return uniqueLicenses.add(license);
@@ -2433,10 +2561,15 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
       return;
     }
 
-    phaseOptimizer = createPhaseOptimizer();
-    phaseOptimizer.consume(optimizations);
-    phaseOptimizer.process(externsRoot, jsRoot);
-    phaseOptimizer = null;
+    CompilerEvents.Span phaseEvent = CompilerEvents.beginPhase("optimize");
+    try {
+      phaseOptimizer = createPhaseOptimizer();
+      phaseOptimizer.consume(optimizations);
+      phaseOptimizer.process(externsRoot, jsRoot);
+      phaseOptimizer = null;
+    } finally {
+      phaseEvent.end();
+    }
   }
 
   @Override
@@ -2583,7 +2716,8 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     return enclosingScopeNode;
   }
 
-  private void recordChange(Node n) {
+  // Synchronized because passes that rewrite scripts in parallel report changes from many threads.
+  private synchronized void recordChange(Node n) {
     if (n.isDeleted()) {
       // Some complicated passes (like SmartNameRemoval) might both change and delete a scope in
       // the same pass, and they might even perform the change after the deletion because of
@@ -2615,7 +2749,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
   }
 
   @Override
-  public void reportFunctionDeleted(Node n) {
+  public synchronized void reportFunctionDeleted(Node n) {
     checkState(n.isFunction());
     n.setDeleted(true);
     changeTimeline.remove(n);
@@ -2628,7 +2762,7 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     notifyChangeHandlers();
   }
 
-  private void notifyChangeHandlers() {
+  private synchronized void notifyChangeHandlers() {
     for (CodeChangeHandler handler : codeChangeHandlers) {
       handler.reportChange();
     }
@@ -2699,6 +2833,34 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     }
   }
 
+  @Override
+  @Nullable
+  ParseCache getParseCache() {
+    if (options.parseCacheDirectory == null) {
+      return null;
+    }
+    if (parseCache == null) {
+      synchronized (this) {
+        if (parseCache == null) {
+          parseCache = new ParseCache(Paths.get(options.parseCacheDirectory));
+        }
+      }
+    }
+    return parseCache;
+  }
+
+  @Override
+  @Nullable
+  ParseAhead getParseAhead() {
+    return parseAhead;
+  }
+
+  /** Sets sources that were submitted for parsing before the compiler was initialized. */
+  @GwtIncompatible("ParseAhead")
+  void setParseAhead(@Nullable ParseAhead parseAhead) {
+    this.parseAhead = parseAhead;
+  }
+
   protected Config createConfig(Config.LanguageMode mode, Config.StrictMode strictMode) {
     return ParserRunner.createConfig(
         mode,
@@ -3524,6 +3686,21 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     return new CompilerExecutor();
   }
 
+  @Override
+  ParallelScriptPassRunner getParallelScriptPassRunner() {
+    if (parallelScriptPassRunner == null) {
+      parallelScriptPassRunner = new ParallelScriptPassRunner(options.numParallelThreads);
+    }
+    return parallelScriptPassRunner;
+  }
+
+  private void shutdownParallelScriptPassRunner() {
+    if (parallelScriptPassRunner != null) {
+      parallelScriptPassRunner.shutdown();
+      parallelScriptPassRunner = null;
+    }
+  }
+
   protected CompilerExecutor getCompilerExecutor() {
     return compilerExecutor;
   }
@@ -3605,6 +3782,15 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     }
   }
 
+  /** Leads every stream written by {@link #saveState}, followed by the format version. */
+  private static final int STATE_MAGIC = 0x4a534353; // "JSCS"
+
+  /**
+   * Version of the saved state format. Bump whenever the encoding of the compiler state changes,
+   * e.g. the property encoding used by {@link Node} serialization.
+   */
+  private static final int STATE_FORMAT_VERSION = 3;
+
   @GwtIncompatible("ObjectOutputStream")
   public void saveState(OutputStream outputStream) throws IOException {
     // Do not close the outputstream, caller is responsible for closing it.
@@ -3612,6 +3798,8 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
     runInCompilerThread(
         () -> {
           Tracer tracer = newTracer("serializeCompilerState");
+          objectOutputStream.writeInt(STATE_MAGIC);
+          objectOutputStream.writeInt(STATE_FORMAT_VERSION);
           objectOutputStream.writeObject(new CompilerState(Compiler.this));
           if (typeRegistry != null) {
             typeRegistry.saveContents(objectOutputStream);
@@ -3653,6 +3841,17 @@ public class Compiler extends AbstractCompiler implements ErrorHandler, SourceFi
               public CompilerState call() throws Exception {
                 Tracer tracer = newTracer(PassNames.DESERIALIZE_COMPILER_STATE);
                 logger.fine("Deserializing the CompilerState");
+                if (objectInputStream.readInt() != STATE_MAGIC) {
+                  throw new IOException("Not a saved compiler state");
+                }
+                int version = objectInputStream.readInt();
+                if (version != STATE_FORMAT_VERSION) {
+                  throw new IOException(
+                      "Saved compiler state has format version "
+                          + version
+                          + ", expected "
+                          + STATE_FORMAT_VERSION);
+                }
                 CompilerState compilerState = (CompilerState) objectInputStream.readObject();
                 logger.fine("Finished deserializing CompilerState");
                 if (compilerState.typeRegistry != null) {
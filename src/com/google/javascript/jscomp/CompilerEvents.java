@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.javascript.rhino.Node;
+
+/**
+ * Emits Java Flight Recorder events for compiler phases and passes, so that a recording of a
+ * compile shows pass timings next to GC, allocation and lock profiles.
+ *
+ * <p>On JVMs without the {@code jdk.jfr} API every method is a no-op. When JFR is present but not
+ * recording, each call costs one {@code isEnabled} check.
+ */
+@GwtIncompatible("jdk.jfr")
+final class CompilerEvents {
+
+  /** An event that has started; {@link #end} records it. */
+  interface Span {
+    void end();
+  }
+
+  static final Span NO_OP_SPAN = () -> {};
+
+  private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+  /**
+   * Starts an event for a run of the pass {@code passName} over {@code jsRoot}. Coarse phases such
+   * as "check" and "optimize" are recorded by {@link #beginPhase}.
+   */
+  static Span beginPass(AbstractCompiler compiler, String passName, Node jsRoot) {
+    return JFR_AVAILABLE ? JfrCompilerEvents.beginPass(compiler, passName, jsRoot) : NO_OP_SPAN;
+  }
+
+  /** Starts an event for one of the top-level phases: parse, check, optimize or print. */
+  static Span beginPhase(String phaseName) {
+    return JFR_AVAILABLE ? JfrCompilerEvents.beginPhase(phaseName) : NO_OP_SPAN;
+  }
+
+  private static boolean isJfrAvailable() {
+    try {
+      // JFR is part of JDK 11+ and of later JDK 8 updates, but not of every JVM we run on.
+      Class.forName("jdk.jfr.Event");
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private CompilerEvents() {}
+}
@@ -33,6 +33,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.primitives.Chars;
 import com.google.javascript.jscomp.deps.ModuleLoader;
 import com.google.javascript.jscomp.deps.ModuleLoader.ResolutionMode;
+import com.google.javascript.jscomp.deps.ModuleResolutionCache;
 import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.jscomp.parsing.parser.FeatureSet;
 import com.google.javascript.jscomp.parsing.parser.util.format.SimpleFormat;
@@ -354,6 +355,9 @@ public class CompilerOptions implements Serializable {
   /** Checks types on expressions */
   public boolean checkTypes;
 
+  /** Whether to build a {@link TypeDependencyIndex} after type checking. */
+  boolean recordTypeDependencies = false;
+
   // whether to skip the RemoveTypes pass
   private boolean shouldUnsafelyPreserveTypesForDebugging;
 
@@ -393,6 +397,9 @@ public class CompilerOptions implements Serializable {
   // TODO(bradfordcsmith): Investigate how can we use multi-threads as default.
   int numParallelThreads = 1;
 
+  /** Directory holding cached parse results, or null to always parse inputs from source. */
+  @Nullable String parseCacheDirectory = null;
+
   /**
    * Sets the level of parallelism for compilation passes that can exploit multi-threading.
    *
@@ -406,6 +413,61 @@ public class CompilerOptions implements Serializable {
     numParallelThreads = parallelism;
   }
 
+  /**
+   * Sets a directory in which parsed ASTs are cached between compilations.
+   *
+   * <p>Entries are keyed by the file name, its content and the parser configuration, so inputs
+   * that have not changed since a previous compilation are not reparsed. Null disables the cache.
+   *
+   * <p>Reading an entry only accepts the classes an AST is made of, but a cached AST is still
+   * compiled as if it had been parsed from the input, so the directory must only be writable by
+   * users trusted to write the inputs.
+   */
+  public void setParseCacheDirectory(@Nullable String parseCacheDirectory) {
+    this.parseCacheDirectory = parseCacheDirectory;
+  }
+
+  /** Parsed externs shared with other compilations, or null to always parse externs. */
+  @Nullable transient SharedExternsAsts sharedExternsAsts = null;
+
+  /**
+   * Sets a store of parsed externs that is shared with other compilations.
+   *
+   * <p>Externs whose name, content and parser configuration match a stored entry are copied from
+   * it instead of being parsed, and newly parsed externs are added to it. Null disables sharing.
+   */
+  public void setSharedExternsAsts(@Nullable SharedExternsAsts sharedExternsAsts) {
+    this.sharedExternsAsts = sharedExternsAsts;
+  }
+
+  /** Module resolutions shared with other compilations, or null to resolve modules every time. */
+  @Nullable transient ModuleResolutionCache moduleResolutionCache = null;
+
+  /**
+   * Sets a cache of module resolutions that is shared with other compilations.
+   *
+   * <p>Resolutions are only reused by compilations with the same inputs, module roots and
+   * resolution settings. Null disables sharing.
+   */
+  public void setModuleResolutionCache(@Nullable ModuleResolutionCache moduleResolutionCache) {
+    this.moduleResolutionCache = moduleResolutionCache;
+  }
+
+  /** Whether to drop the text of inputs read from disk or zips once they are parsed. */
+  boolean releaseSourceTextAfterParse = false;
+
+  /**
+   * Sets whether the text of inputs that are read from disk or from zips is dropped from memory
+   * once they are parsed.
+   *
+   * <p>Most of the text is only needed again for error excerpts and for source map contents, and
+   * is then read again on demand. This saves holding every input in the heap during whole program
+   * compilations.
+   */
+  public void setReleaseSourceTextAfterParse(boolean releaseSourceTextAfterParse) {
+    this.releaseSourceTextAfterParse = releaseSourceTextAfterParse;
+  }
+
   //--------------------------------
   // Optimizations
   //--------------------------------
@@ -2167,6 +2229,14 @@ public class CompilerOptions implements Serializable {
     this.checkTypes = checkTypes;
   }
 
+  /**
+   * Whether to build a {@link TypeDependencyIndex} after type checking, available from {@link
+   * Compiler#getTypeDependencyIndex}.
+   */
+  public void setRecordTypeDependencies(boolean recordTypeDependencies) {
+    this.recordTypeDependencies = recordTypeDependencies;
+  }
+
   /**
    * Skips the RemoveTypes pass so that JSTypes may be viewed on the AST post-compilation.
    *
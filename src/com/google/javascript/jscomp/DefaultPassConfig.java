@@ -1006,6 +1006,7 @@ public final class DefaultPassConfig extends PassConfig {
   private final PassFactory suspiciousCode =
       PassFactory.builderForHotSwap()
           .setName("suspiciousCode")
+          .setParallelizablePerScript(true)
           .setInternalFactory(
               (compiler) -> {
                 List<Callback> sharedCallbacks = new ArrayList<>();
@@ -1210,6 +1211,7 @@ public final class DefaultPassConfig extends PassConfig {
   private final PassFactory checkJsDocAndEs6Modules =
       PassFactory.builderForHotSwap()
           .setName("checkJsDocAndEs6Modules")
+          .setParallelizablePerScript(true)
           .setFeatureSetForChecks()
           .setInternalFactory(
               (compiler) ->
@@ -1603,7 +1605,7 @@ public final class DefaultPassConfig extends PassConfig {
           .build();
 
   /** Various peephole optimizations. */
-  private static CompilerPass createPeepholeOptimizationsPass(
+  static CompilerPass createPeepholeOptimizationsPass(
       AbstractCompiler compiler, String passName) {
     final boolean late = false;
     final boolean useTypesForOptimization = compiler.getOptions().useTypesForLocalOptimization;
@@ -1810,6 +1812,10 @@ public final class DefaultPassConfig extends PassConfig {
                       TypeCheck check = makeTypeCheck(compiler);
                       check.process(externs, root);
                       compiler.getErrorManager().setTypedPercent(check.getTypedPercent());
+                      if (options.recordTypeDependencies) {
+                        compiler.setTypeDependencyIndex(
+                            TypeDependencyIndex.create(compiler, root, topScope));
+                      }
                     }
 
                     @Override
@@ -1860,6 +1866,7 @@ public final class DefaultPassConfig extends PassConfig {
   private final PassFactory lintChecks =
       PassFactory.builderForHotSwap()
           .setName(PassNames.LINT_CHECKS)
+          .setParallelizablePerScript(true)
           .setInternalFactory(
               (compiler) -> {
                 ImmutableList.Builder<Callback> callbacks =
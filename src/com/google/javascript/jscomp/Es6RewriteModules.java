@@ -169,7 +169,23 @@ public final class Es6RewriteModules implements HotSwapCompilerPass, NodeTravers
   public void process(Node externs, Node root) {
     checkArgument(externs.isRoot(), externs);
     checkArgument(root.isRoot(), root);
-    NodeTraversal.traverseRoots(compiler, this, externs, root);
+    if (compiler.getOptions().numParallelThreads > 1 && canRewriteScriptsIndependently()) {
+      // Everything a script needs to know about other modules is in the module map, so each
+      // script gets its own instance of this pass and is rewritten on its own thread.
+      compiler
+          .getParallelScriptPassRunner()
+          .forEachScript(
+              script ->
+                  NodeTraversal.traverse(
+                      compiler,
+                      script,
+                      new Es6RewriteModules(
+                          compiler, moduleMetadataMap, moduleMap, null, globalTypedScope)),
+              externs,
+              root);
+    } else {
+      NodeTraversal.traverseRoots(compiler, this, externs, root);
+    }
     compiler.setFeatureSet(compiler.getFeatureSet().without(MODULES));
     // This pass may add getters properties on module objects.
     GatherGetterAndSetterProperties.update(compiler, externs, root);
@@ -181,6 +197,15 @@ public final class Es6RewriteModules implements HotSwapCompilerPass, NodeTravers
     NodeTraversal.traverse(compiler, scriptNode, this);
   }
 
+  /**
+   * Whether rewriting a script leaves all other scripts and shared compiler state alone. This is
+   * not the case when rewritten names are recorded in the preprocessor symbol table or declared in
+   * the global typed scope.
+   */
+  private boolean canRewriteScriptsIndependently() {
+    return preprocessorSymbolTable == null && !astFactory.isAddingTypes();
+  }
+
   private void clearPerFileState() {
     this.typedefs = new HashSet<>();
     this.namesToInlineByAlias = new HashMap<>();
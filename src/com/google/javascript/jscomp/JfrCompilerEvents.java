@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.javascript.jscomp.CompilerEvents.Span;
+import com.google.javascript.rhino.Node;
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JFR event types behind {@link CompilerEvents}. Kept in a separate class so that it is only
+ * loaded on JVMs that have {@code jdk.jfr}.
+ */
+@GwtIncompatible("jdk.jfr")
+final class JfrCompilerEvents {
+
+  /**
+   * Timeline key used to count the scopes changed by a pass without consuming the marks that
+   * {@link PhaseOptimizer} uses to decide which scopes a pass needs to revisit.
+   */
+  private static final String CHANGE_TIMELINE_KEY = "-jfr-pass-event-";
+
+  @Name("com.google.javascript.jscomp.Phase")
+  @Label("Compiler Phase")
+  @Category("Closure Compiler")
+  static final class PhaseEvent extends Event {
+    @Label("Phase")
+    String phaseName;
+  }
+
+  @Name("com.google.javascript.jscomp.Pass")
+  @Label("Compiler Pass")
+  @Category("Closure Compiler")
+  static final class PassEvent extends Event {
+    @Label("Pass")
+    String passName;
+
+    @Label("Changed Scopes")
+    @Description("Number of functions and scripts the pass reported as changed")
+    int changedScopes;
+  }
+
+  @Name("com.google.javascript.jscomp.PassAstSize")
+  @Label("Compiler Pass AST Size")
+  @Category("Closure Compiler")
+  @Description("AST size before and after a pass. Walks the whole AST twice per pass.")
+  @Enabled(false)
+  static final class PassAstSizeEvent extends Event {
+    @Label("Pass")
+    String passName;
+
+    @Label("AST Size Before")
+    int astSizeBefore;
+
+    @Label("AST Size After")
+    int astSizeAfter;
+
+    @Label("AST Size Delta")
+    int astSizeDelta;
+  }
+
+  static Span beginPhase(String phaseName) {
+    PhaseEvent event = new PhaseEvent();
+    if (!event.isEnabled()) {
+      return CompilerEvents.NO_OP_SPAN;
+    }
+    event.phaseName = phaseName;
+    event.begin();
+    return event::commit;
+  }
+
+  static Span beginPass(AbstractCompiler compiler, String passName, Node jsRoot) {
+    PassEvent passEvent = new PassEvent();
+    PassAstSizeEvent astSizeEvent = new PassAstSizeEvent();
+    boolean recordPass = passEvent.isEnabled();
+    boolean recordAstSize = astSizeEvent.isEnabled();
+    if (!recordPass && !recordAstSize) {
+      return CompilerEvents.NO_OP_SPAN;
+    }
+
+    // Do the bookkeeping before the events begin so that it is not counted in their durations.
+    if (recordPass) {
+      passEvent.passName = passName;
+      compiler.getChangedScopeNodesForPass(CHANGE_TIMELINE_KEY);
+    }
+    if (recordAstSize) {
+      astSizeEvent.passName = passName;
+      astSizeEvent.astSizeBefore = NodeUtil.countAstSize(jsRoot);
+    }
+    passEvent.begin();
+    astSizeEvent.begin();
+    return () -> {
+      passEvent.end();
+      astSizeEvent.end();
+      if (recordPass) {
+        List<Node> changedScopes = compiler.getChangedScopeNodesForPass(CHANGE_TIMELINE_KEY);
+        passEvent.changedScopes = changedScopes == null ? 0 : changedScopes.size();
+        passEvent.commit();
+      }
+      if (recordAstSize) {
+        astSizeEvent.astSizeAfter = NodeUtil.countAstSize(jsRoot);
+        astSizeEvent.astSizeDelta = astSizeEvent.astSizeAfter - astSizeEvent.astSizeBefore;
+        astSizeEvent.commit();
+      }
+    };
+  }
+
+  private JfrCompilerEvents() {}
+}
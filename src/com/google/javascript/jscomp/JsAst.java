@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.parsing.Config;
 import com.google.javascript.jscomp.parsing.ParserRunner;
 import com.google.javascript.jscomp.parsing.parser.FeatureSet;
 import com.google.javascript.rhino.ErrorReporter;
@@ -149,15 +150,45 @@ public class JsAst implements SourceAst {
         compiler.getDefaultErrorReporter());
 
     try {
-      ParserRunner.ParseResult result = ParserRunner.parse(
-          sourceFile,
-          sourceFile.getCode(),
-          compiler.getParserConfig(sourceFile.isExtern()
-              ? AbstractCompiler.ConfigContext.EXTERNS
-              : AbstractCompiler.ConfigContext.DEFAULT),
-          reporter);
+      String code = sourceFile.getCode();
+      Config config =
+          compiler.getParserConfig(
+              sourceFile.isExtern()
+                  ? AbstractCompiler.ConfigContext.EXTERNS
+                  : AbstractCompiler.ConfigContext.DEFAULT);
+      // Cached entries do not record comments, so they can't serve detailed source info.
+      boolean useCaches = !compiler.getOptions().preservesDetailedSourceInfo();
+      SharedExternsAsts sharedExterns =
+          useCaches && sourceFile.isExtern() ? compiler.getOptions().sharedExternsAsts : null;
+      ParseCache parseCache = useCaches ? compiler.getParseCache() : null;
+      ParserRunner.ParseResult result =
+          sharedExterns == null ? null : sharedExterns.get(sourceFile, code, config);
+      if (result == null && parseCache != null) {
+        result = parseCache.get(sourceFile, code, config);
+        if (result != null && sharedExterns != null) {
+          sharedExterns.put(sourceFile, code, config, result);
+        }
+      }
+      if (result == null) {
+        ParseAhead parseAhead = compiler.getParseAhead();
+        result = parseAhead == null ? null : parseAhead.take(sourceFile, config, reporter);
+        if (result == null) {
+          result = ParserRunner.parse(sourceFile, code, config, reporter);
+        }
+        if (reporter.errors.isEmpty() && reporter.warnings.isEmpty()) {
+          if (sharedExterns != null) {
+            sharedExterns.put(sourceFile, code, config, result);
+          }
+          if (parseCache != null) {
+            parseCache.put(sourceFile, code, config, result);
+          }
+        }
+      }
       root = result.ast;
       features = result.features;
+      if (result.lineOffsets != null) {
+        sourceFile.setLineOffsets(result.lineOffsets);
+      }
 
       if (compiler.getOptions().preservesDetailedSourceInfo()) {
         compiler.addComments(sourceFile.getName(), result.comments);
@@ -170,6 +201,9 @@ public class JsAst implements SourceAst {
           compiler.addInputSourceMap(sourceFile.getName(), new SourceMapInput(sourceMapSourceFile));
         }
       }
+      if (compiler.getOptions().releaseSourceTextAfterParse) {
+        sourceFile.releaseCodeAfterParse();
+      }
     } catch (IOException e) {
       compiler.report(
           JSError.make(AbstractCompiler.READ_ERROR, sourceFile.getName(), e.getMessage()));
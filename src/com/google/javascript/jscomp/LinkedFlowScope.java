@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.javascript.jscomp.type.FlowScope;
 import com.google.javascript.rhino.HamtPMap;
+import com.google.javascript.rhino.IntHamtPMap;
 import com.google.javascript.rhino.JSDocInfo;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.PMap;
@@ -36,8 +37,8 @@ class LinkedFlowScope implements FlowScope {
 
   private final CompilerInputProvider inputProvider;
 
-  // Map from TypedScope to OverlayScope.
-  private final PMap<TypedScope, OverlayScope> scopes;
+  // Map from the key of a TypedScope to its OverlayScope. See #scopeKey.
+  private final IntHamtPMap<OverlayScope> scopes;
 
   private final TypedScope functionScope;
 
@@ -51,7 +52,7 @@ class LinkedFlowScope implements FlowScope {
    */
   private LinkedFlowScope(
       CompilerInputProvider inputProvider,
-      PMap<TypedScope, OverlayScope> scopes,
+      IntHamtPMap<OverlayScope> scopes,
       TypedScope syntacticScope,
       TypedScope functionScope) {
     this.inputProvider = inputProvider;
@@ -60,29 +61,38 @@ class LinkedFlowScope implements FlowScope {
     this.functionScope = functionScope;
   }
 
+  /**
+   * Returns the key of the given scope in the scope map. Every scope in the map is an ancestor of
+   * the syntactic scope, so its depth identifies it. The bottom scope is a root like the global
+   * scope, so it gets a key of its own.
+   */
+  private static int scopeKey(TypedScope scope) {
+    return scope.isBottom() ? -1 : scope.getDepth();
+  }
+
   /**
    * Returns the scope map, trimmed to the common ancestor between this FlowScope's syntacticScope
    * and the given scope. Any inferred types on variables in deeper scopes cannot be propagated past
    * this point (since they're no longer in scope), and trimming them eagerly allows us to ignore
    * these irrelevant types when checking equality and joining.
    */
-  private PMap<TypedScope, OverlayScope> trimScopes(TypedScope scope) {
+  private IntHamtPMap<OverlayScope> trimScopes(TypedScope scope) {
     TypedScope thisScope = syntacticScope;
     TypedScope thatScope = scope;
     int thisDepth = thisScope.getDepth();
     int thatDepth = thatScope.getDepth();
-    PMap<TypedScope, OverlayScope> result = scopes;
+    IntHamtPMap<OverlayScope> result = scopes;
     while (thatDepth > thisDepth) {
       thatScope = thatScope.getParent();
       thatDepth--;
     }
     while (thisDepth > thatDepth) {
-      result = result.minus(thisScope);
+      result = result.minus(scopeKey(thisScope));
       thisScope = thisScope.getParent();
       thisDepth--;
     }
     while (thisScope != thatScope && thisScope != null && thatScope != null) {
-      result = result.minus(thisScope);
+      result = result.minus(scopeKey(thisScope));
       thisScope = thisScope.getParent();
       thatScope = thatScope.getParent();
     }
@@ -98,7 +108,7 @@ class LinkedFlowScope implements FlowScope {
   public static LinkedFlowScope createEntryLattice(
       CompilerInputProvider inputProvider, TypedScope scope) {
     return new LinkedFlowScope(
-        inputProvider, HamtPMap.<TypedScope, OverlayScope>empty(), scope, scope);
+        inputProvider, IntHamtPMap.<OverlayScope>empty(), scope, scope);
   }
 
   @Override
@@ -106,8 +116,9 @@ class LinkedFlowScope implements FlowScope {
     OverlayScope scope = getOverlayScopeForName(symbol, true);
     OverlayScope newScope = scope.infer(symbol, type);
     // Aggressively remove empty scopes to maintain a reasonable equivalence.
-    PMap<TypedScope, OverlayScope> newScopes =
-        !newScope.slots.isEmpty() ? scopes.plus(scope.scope, newScope) : scopes.minus(scope.scope);
+    int key = scopeKey(scope.scope);
+    IntHamtPMap<OverlayScope> newScopes =
+        !newScope.slots.isEmpty() ? scopes.plus(key, newScope) : scopes.minus(key);
     return newScopes != scopes
         ? new LinkedFlowScope(inputProvider, newScopes, syntacticScope, functionScope)
         : this;
@@ -218,7 +229,11 @@ class LinkedFlowScope implements FlowScope {
    * @param create whether to create a new OverlayScope if one does not already exist.
    */
   private OverlayScope getOverlayScopeForScope(TypedScope scope, boolean create) {
-    OverlayScope overlay = scopes.get(scope);
+    OverlayScope overlay = scopes.get(scopeKey(scope));
+    if (overlay != null && overlay.scope != scope) {
+      // A scope at the same depth on another branch, which this flow does not see.
+      overlay = null;
+    }
     if (overlay == null && create) {
       overlay = new OverlayScope(scope);
     }
@@ -247,10 +262,23 @@ class LinkedFlowScope implements FlowScope {
   static class FlowScopeJoinOp extends JoinOp.BinaryJoinOp<FlowScope> {
     final CompilerInputProvider inputProvider;
 
+    /** The number of joins performed by this op. */
+    private int joinCount = 0;
+    /** The number of joins that could not return one of their inputs and built a new scope. */
+    private int allocatingJoinCount = 0;
+
     FlowScopeJoinOp(CompilerInputProvider inputProvider) {
       this.inputProvider = inputProvider;
     }
 
+    int getJoinCount() {
+      return joinCount;
+    }
+
+    int getAllocatingJoinCount() {
+      return allocatingJoinCount;
+    }
+
     // NOTE(sdh): When joining flow scopes with different syntactic scopes,
     // we do not attempt to recover the correct syntactic scope.  This is
     // okay because joins only occur in two situations: (1) performed by
@@ -267,6 +295,7 @@ class LinkedFlowScope implements FlowScope {
       // To join the two scopes, we have to
       LinkedFlowScope linkedA = (LinkedFlowScope) a;
       LinkedFlowScope linkedB = (LinkedFlowScope) b;
+      joinCount++;
       if (linkedA.scopes == linkedB.scopes && linkedA.functionScope == linkedB.functionScope) {
         return linkedA;
       }
@@ -286,14 +315,28 @@ class LinkedFlowScope implements FlowScope {
       // interesting consequence of the current approach is that we may end up
       // adding irrelevant block-local variables to the joined scope unnecessarily.
       TypedScope common = getCommonParentDeclarationScope(linkedA, linkedB);
-      return new LinkedFlowScope(
-          inputProvider,
-          join(linkedA, linkedB, common),
-          common,
-          linkedA.flowsFromBottom() ? linkedB.functionScope : linkedA.functionScope);
+      IntHamtPMap<OverlayScope> joined = join(linkedA, linkedB, common);
+      TypedScope functionScope =
+          linkedA.flowsFromBottom() ? linkedB.functionScope : linkedA.functionScope;
+      // The join shares every overlay and slot that one side already has, so when nothing
+      // else changed that side can be returned as is.
+      if (linkedA.isSameFlow(joined, common, functionScope)) {
+        return linkedA;
+      } else if (linkedB.isSameFlow(joined, common, functionScope)) {
+        return linkedB;
+      }
+      allocatingJoinCount++;
+      return new LinkedFlowScope(inputProvider, joined, common, functionScope);
     }
   }
 
+  private boolean isSameFlow(
+      IntHamtPMap<OverlayScope> scopes, TypedScope syntacticScope, TypedScope functionScope) {
+    return this.scopes == scopes
+        && this.syntacticScope == syntacticScope
+        && this.functionScope == functionScope;
+  }
+
   static TypedScope getCommonParentDeclarationScope(LinkedFlowScope left, LinkedFlowScope right) {
     if (left.flowsFromBottom()) {
       return right.syntacticScope;
@@ -327,7 +370,8 @@ class LinkedFlowScope implements FlowScope {
     if (left == right) {
       return true;
     }
-    return left.slots.equivalent(right.slots, LinkedFlowScope::equalSlots);
+    return left.scope == right.scope
+        && left.slots.equivalent(right.slots, LinkedFlowScope::equalSlots);
   }
 
   /**
@@ -343,7 +387,7 @@ class LinkedFlowScope implements FlowScope {
   }
 
   @SuppressWarnings("ReferenceEquality") // JSType comparisons are expensive, so just use identity.
-  private static PMap<TypedScope, OverlayScope> join(
+  private static IntHamtPMap<OverlayScope> join(
       LinkedFlowScope linkedA, LinkedFlowScope linkedB, TypedScope commonParent) {
     return linkedA
         .trimScopes(commonParent)
@@ -362,8 +406,7 @@ class LinkedFlowScope implements FlowScope {
               TypedScope bestScope = typedScopeA != null ? typedScopeA : typedScopeB;
               bestScope =
                   bestScope != null ? bestScope : scopeA != null ? scopeA.scope : scopeB.scope;
-              return new OverlayScope(
-                  bestScope,
+              PMap<String, OverlaySlot> slots =
                   slotsA.reconcile(
                       slotsB,
                       (slotKey, slotA, slotB) -> {
@@ -411,10 +454,21 @@ class LinkedFlowScope implements FlowScope {
                           return slotA;
                         }
                         JSType joinedType = slotA.getType().getLeastSupertype(slotB.getType());
-                        return joinedType != slotA.getType()
-                            ? new OverlaySlot(name, joinedType)
-                            : slotA;
-                      }));
+                        if (joinedType == slotA.getType()) {
+                          return slotA;
+                        } else if (joinedType == slotB.getType()) {
+                          return slotB;
+                        }
+                        return new OverlaySlot(name, joinedType);
+                      });
+              // Reuse an input overlay when its slots survived the join unchanged, so that the
+              // reconciled map can share the untouched subtrees of either input.
+              if (scopeA != null && scopeA.slots == slots && scopeA.scope == bestScope) {
+                return scopeA;
+              } else if (scopeB != null && scopeB.slots == slots && scopeB.scope == bestScope) {
+                return scopeB;
+              }
+              return new OverlayScope(bestScope, slots);
             });
   }
 
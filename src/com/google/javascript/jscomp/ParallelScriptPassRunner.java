@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+
+import com.google.javascript.rhino.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs work for a single compilation on a pool of threads, such as a pass that is {@link
+ * PassFactory#isParallelizablePerScript() parallelizable per script} over every script under a root
+ * node.
+ *
+ * <p>The pool is owned by the {@link AbstractCompiler} and shared by every pass of the compilation,
+ * so the threads are only started once. Idle threads time out, and the compiler shuts the pool down
+ * at the end of the compilation.
+ *
+ * <p>Each script gets its own pass instance, so callbacks that keep per-file state need no
+ * synchronization. Errors go through {@link AbstractCompiler#report}, which is backed by a {@link
+ * ThreadSafeDelegatingErrorManager}.
+ */
+final class ParallelScriptPassRunner {
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final int numParallelThreads;
+
+  /** Created on first use, and again if used after {@link #shutdown}. */
+  private ThreadPoolExecutor poolExecutor;
+
+  ParallelScriptPassRunner(int numParallelThreads) {
+    checkArgument(numParallelThreads > 0, numParallelThreads);
+    this.numParallelThreads = numParallelThreads;
+  }
+
+  /** Runs the pass created by {@code factory} over {@code root}, one script at a time. */
+  void process(AbstractCompiler compiler, PassFactory factory, Node root) {
+    checkArgument(factory.isParallelizablePerScript(), factory.getName());
+    if (!root.isRoot()) {
+      factory.create(compiler).process(null, root);
+      return;
+    }
+
+    forEachScript(
+        script -> ((HotSwapCompilerPass) factory.create(compiler)).hotSwapScript(script, null),
+        root);
+  }
+
+  /**
+   * Calls {@code action} on every script under the given roots, and returns once all calls have
+   * finished.
+   *
+   * <p>{@code action} must only modify the script it is given.
+   */
+  void forEachScript(Consumer<Node> action, Node... roots) {
+    List<Node> scripts = new ArrayList<>();
+    for (Node root : roots) {
+      checkArgument(root.isRoot(), root);
+      for (Node script = root.getFirstChild(); script != null; script = script.getNext()) {
+        scripts.add(script);
+      }
+    }
+    mapInParallel(
+        scripts,
+        script -> {
+          action.accept(script);
+          return null;
+        });
+  }
+
+  /**
+   * Applies {@code function} to every input, and returns the results in the order of the inputs
+   * once all calls have finished.
+   *
+   * <p>{@code function} must not modify anything that is shared between inputs. Calls made from one
+   * of the pool's own threads run on that thread, since waiting on the pool there could deadlock.
+   */
+  <T, R> List<R> mapInParallel(List<T> inputs, Function<T, R> function) {
+    List<R> results = new ArrayList<>();
+    if (isPoolThread(Thread.currentThread())) {
+      for (T input : inputs) {
+        results.add(function.apply(input));
+      }
+      return results;
+    }
+
+    ThreadPoolExecutor executor = getPoolExecutor();
+    List<Future<R>> futures = new ArrayList<>();
+    for (T input : inputs) {
+      futures.add(executor.submit(() -> function.apply(input)));
+    }
+
+    try {
+      for (Future<R> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      cancelAll(futures);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      cancelAll(futures);
+      throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+    return results;
+  }
+
+  /** Stops the pool's threads. A later call that needs them starts a new pool. */
+  void shutdown() {
+    if (poolExecutor != null) {
+      poolExecutor.shutdown();
+      poolExecutor = null;
+    }
+  }
+
+  private ThreadPoolExecutor getPoolExecutor() {
+    if (poolExecutor == null) {
+      poolExecutor =
+          new ThreadPoolExecutor(
+              numParallelThreads,
+              numParallelThreads,
+              KEEP_ALIVE_SECONDS,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              runnable -> new PoolThread(this, runnable));
+      poolExecutor.allowCoreThreadTimeOut(true);
+    }
+    return poolExecutor;
+  }
+
+  private boolean isPoolThread(Thread thread) {
+    return thread instanceof PoolThread && ((PoolThread) thread).owner == this;
+  }
+
+  private static void cancelAll(List<? extends Future<?>> futures) {
+    for (Future<?> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  private static final class PoolThread extends Thread {
+    private final ParallelScriptPassRunner owner;
+
+    PoolThread(ParallelScriptPassRunner owner, Runnable runnable) {
+      super(null, runnable, "jscompiler-parallel", CompilerExecutor.COMPILER_STACK_SIZE);
+      this.owner = owner;
+      setDaemon(true); // Do not prevent the JVM from exiting.
+    }
+  }
+}
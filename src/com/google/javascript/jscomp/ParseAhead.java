@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.ErrorReporter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Parses sources on background threads before they are handed to the {@link Compiler}, so that
+ * parsing overlaps with reading the rest of the inputs.
+ *
+ * <p>Sources are parsed with a fixed parser {@link Config}. When {@link JsAst} later needs the AST
+ * of a submitted source it takes the finished parse, waiting for it if necessary, and the
+ * diagnostics recorded while parsing are reported as if the source had been parsed then.
+ */
+@GwtIncompatible("java.util.concurrent")
+final class ParseAhead {
+
+  private final Config config;
+  private final ThreadPoolExecutor executor;
+  private final Map<SourceFile, Future<Parse>> parses = new ConcurrentHashMap<>();
+
+  ParseAhead(Config config, int numThreads) {
+    this.config = checkNotNull(config);
+    ThreadFactory threadFactory =
+        new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread t =
+                new Thread(null, r, "jscompiler-ParseAhead", CompilerExecutor.COMPILER_STACK_SIZE);
+            t.setDaemon(true); // Do not prevent the JVM from exiting.
+            return t;
+          }
+        };
+    this.executor =
+        new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            Integer.MAX_VALUE,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            threadFactory);
+  }
+
+  /** Starts parsing {@code sourceFile}. */
+  void submit(SourceFile sourceFile) {
+    parses.put(
+        sourceFile,
+        executor.submit(
+            () -> {
+              Parse parse = new Parse();
+              parse.result =
+                  ParserRunner.parse(sourceFile, sourceFile.getCode(), config, parse);
+              return parse;
+            }));
+  }
+
+  /** Indicates that no more sources will be submitted. Parses already submitted still finish. */
+  void finishSubmitting() {
+    executor.shutdown();
+  }
+
+  /**
+   * Returns the parse of {@code sourceFile}, reporting its diagnostics to {@code reporter}, or null
+   * if it was not submitted or was parsed with a different {@code config}. Each parse is only
+   * returned once.
+   */
+  @Nullable
+  ParserRunner.ParseResult take(SourceFile sourceFile, Config config, ErrorReporter reporter) {
+    Future<Parse> future = parses.remove(sourceFile);
+    if (future == null || !this.config.equals(config)) {
+      return null;
+    }
+    Parse parse;
+    try {
+      parse = future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        // Let the caller read the source again and report the failure.
+        return null;
+      }
+      throw new RuntimeException(e.getCause());
+    }
+    parse.replay(reporter);
+    return parse.result;
+  }
+
+  /** A finished parse, along with the diagnostics reported while parsing. */
+  private static final class Parse implements ErrorReporter {
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    ParserRunner.ParseResult result;
+
+    @Override
+    public void warning(String message, String sourceName, int line, int lineOffset) {
+      diagnostics.add(new Diagnostic(false, message, sourceName, line, lineOffset));
+    }
+
+    @Override
+    public void error(String message, String sourceName, int line, int lineOffset) {
+      diagnostics.add(new Diagnostic(true, message, sourceName, line, lineOffset));
+    }
+
+    void replay(ErrorReporter reporter) {
+      for (Diagnostic d : diagnostics) {
+        if (d.isError) {
+          reporter.error(d.message, d.sourceName, d.line, d.lineOffset);
+        } else {
+          reporter.warning(d.message, d.sourceName, d.line, d.lineOffset);
+        }
+      }
+    }
+  }
+
+  private static final class Diagnostic {
+    final boolean isError;
+    final String message;
+    final String sourceName;
+    final int line;
+    final int lineOffset;
+
+    Diagnostic(boolean isError, String message, String sourceName, int line, int lineOffset) {
+      this.isError = isError;
+      this.message = message;
+      this.sourceName = sourceName;
+      this.line = line;
+      this.lineOffset = lineOffset;
+    }
+  }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet;
+import com.google.javascript.rhino.Node;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * An on-disk cache of parsed ASTs, keyed by a hash of the file name, the source text and the
+ * parser {@link Config}. Unchanged inputs are rehydrated from the cache instead of being handed to
+ * {@link ParserRunner}.
+ *
+ * <p>Only parses that produced no errors or warnings are cached, so a cache hit never needs to
+ * replay diagnostics. The {@link SourceFile} referenced by every node is not stored; it is rebound
+ * to the current compilation's {@code SourceFile} when an entry is read.
+ *
+ * <p>A corrupt or unreadable entry is treated as a cache miss, and so is an entry naming a class
+ * that an AST cannot contain.
+ */
+@GwtIncompatible("java.io")
+final class ParseCache {
+
+  private static final Logger logger = Logger.getLogger(ParseCache.class.getName());
+
+  /** Bump whenever the serialized form of the AST changes in an incompatible way. */
+  private static final int FORMAT_VERSION = 3;
+
+  /**
+   * Node (de)serialization tracks in-progress nodes in a static field, so concurrent parses (see
+   * {@link PrebuildAst}) must not read or write entries at the same time.
+   */
+  private static final Object SERIALIZATION_LOCK = new Object();
+
+  private final Path directory;
+
+  ParseCache(Path directory) {
+    this.directory = checkNotNull(directory);
+  }
+
+  /** Returns the cached parse of {@code code}, or null if there is no usable entry. */
+  @Nullable
+  ParserRunner.ParseResult get(SourceFile sourceFile, String code, Config config) {
+    Path entryPath = getEntryPath(sourceFile, code, config);
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(entryPath))) {
+      Entry entry;
+      synchronized (SERIALIZATION_LOCK) {
+        entry = (Entry) new EntryInputStream(in, sourceFile).readObject();
+      }
+      return new ParserRunner.ParseResult(
+          entry.ast, ImmutableList.of(), entry.features, entry.sourceMapURL, entry.lineOffsets);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.log(Level.FINE, "Ignoring unreadable parse cache entry " + entryPath, e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores a freshly parsed AST. Must be called before any pass has modified {@code result.ast}.
+   */
+  void put(SourceFile sourceFile, String code, Config config, ParserRunner.ParseResult result) {
+    Path entryPath = getEntryPath(sourceFile, code, config);
+    Path tempPath = null;
+    try {
+      Files.createDirectories(directory);
+      // Write to a temporary file first so concurrent compiles never see a partial entry.
+      tempPath = Files.createTempFile(directory, entryPath.getFileName().toString(), ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempPath))) {
+        synchronized (SERIALIZATION_LOCK) {
+          ObjectOutputStream objectOut = new EntryOutputStream(out, sourceFile);
+          objectOut.writeObject(
+              new Entry(result.ast, result.features, result.sourceMapURL, result.lineOffsets));
+          objectOut.flush();
+        }
+      }
+      Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+      tempPath = null;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to write parse cache entry " + entryPath, e);
+    } finally {
+      if (tempPath != null) {
+        try {
+          Files.deleteIfExists(tempPath);
+        } catch (IOException e) {
+          // Leave the temporary file behind; it is never read as an entry.
+        }
+      }
+    }
+  }
+
+  private Path getEntryPath(SourceFile sourceFile, String code, Config config) {
+    Hasher hasher =
+        Hashing.sha256()
+            .newHasher()
+            .putInt(FORMAT_VERSION)
+            .putString(sourceFile.getName(), UTF_8)
+            .putBoolean(sourceFile.isExtern())
+            // Config is an AutoValue, so its string form covers every parser setting.
+            .putString(config.toString(), UTF_8)
+            .putString(code, UTF_8);
+    return directory.resolve(hasher.hash() + ".ast");
+  }
+
+  private static final class Entry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    final Node ast;
+    final FeatureSet features;
+    @Nullable final String sourceMapURL;
+    @Nullable final int[] lineOffsets;
+
+    Entry(
+        Node ast,
+        FeatureSet features,
+        @Nullable String sourceMapURL,
+        @Nullable int[] lineOffsets) {
+      this.ast = ast;
+      this.features = features;
+      this.sourceMapURL = sourceMapURL;
+      this.lineOffsets = lineOffsets;
+    }
+  }
+
+  /** Stands in for the compilation's {@link SourceFile} in a serialized entry. */
+  private enum SourceFilePlaceholder {
+    INSTANCE
+  }
+
+  private static final class EntryOutputStream extends ObjectOutputStream {
+    private final SourceFile sourceFile;
+
+    EntryOutputStream(OutputStream out, SourceFile sourceFile) throws IOException {
+      super(out);
+      this.sourceFile = sourceFile;
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+      return obj == sourceFile ? SourceFilePlaceholder.INSTANCE : obj;
+    }
+  }
+
+  /**
+   * Reads an entry, rejecting every class that cannot be part of one. The cache directory may be
+   * shared, so an entry is not trusted to only name the classes written by {@link #put}; plain
+   * Java deserialization of an arbitrary file could run code in the compiler.
+   */
+  private static final class EntryInputStream extends ObjectInputStream {
+    private static final ImmutableSet<String> ALLOWED_CLASSES =
+        ImmutableSet.of(
+            "java.lang.Object",
+            "java.lang.Boolean",
+            "java.lang.Double",
+            "java.lang.Enum",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Number",
+            "java.lang.String",
+            "java.math.BigInteger",
+            "java.util.ArrayList",
+            "java.util.HashMap",
+            "java.util.HashSet",
+            "java.util.LinkedHashMap",
+            "java.util.LinkedHashSet");
+
+    private static final ImmutableList<String> ALLOWED_PREFIXES =
+        ImmutableList.of(
+            "com.google.common.collect.",
+            "com.google.javascript.jscomp.ParseCache$",
+            "com.google.javascript.jscomp.parsing.parser.FeatureSet",
+            "com.google.javascript.rhino.");
+
+    private final SourceFile sourceFile;
+
+    EntryInputStream(InputStream in, SourceFile sourceFile) throws IOException {
+      super(in);
+      this.sourceFile = sourceFile;
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      if (!isAllowed(desc.getName())) {
+        throw new InvalidClassException(desc.getName(), "not allowed in a parse cache entry");
+      }
+      return super.resolveClass(desc);
+    }
+
+    private static boolean isAllowed(String name) {
+      // Strip array dimensions. Primitive arrays like "[I" have no element class to check.
+      String element = name.replaceFirst("^\\[+", "");
+      if (!element.equals(name)) {
+        if (!element.startsWith("L")) {
+          return true;
+        }
+        element = element.substring(1, element.length() - 1);
+      }
+      if (ALLOWED_CLASSES.contains(element)) {
+        return true;
+      }
+      for (String prefix : ALLOWED_PREFIXES) {
+        if (element.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) {
+      return obj == SourceFilePlaceholder.INSTANCE ? sourceFile : obj;
+    }
+  }
+}
@@ -56,6 +56,13 @@ public abstract class PassFactory {
   /** Whether or not his factory produces {@link HotSwapCompilerPass}es. */
   abstract boolean isHotSwapable();
 
+  /**
+   * Whether the passes from this factory only read and report on one script at a time, and may
+   * therefore run on every script concurrently. Such passes must not modify the AST or any
+   * compiler state other than reporting errors.
+   */
+  abstract boolean isParallelizablePerScript();
+
   public abstract Builder toBuilder();
 
   PassFactory() {
@@ -83,6 +90,8 @@ public abstract class PassFactory {
 
     abstract Builder setHotSwapable(boolean x);
 
+    abstract Builder setParallelizablePerScript(boolean x);
+
     @ForOverride
     abstract PassFactory autoBuild();
 
@@ -108,17 +117,27 @@ public abstract class PassFactory {
         // makes no sense.
         checkState(!result.isRunInFixedPointLoop());
       }
+      if (result.isParallelizablePerScript()) {
+        // Running per script relies on HotSwapCompilerPass#hotSwapScript.
+        checkState(result.isHotSwapable());
+      }
 
       return result;
     }
   }
 
   public static Builder builder() {
-    return new AutoValue_PassFactory.Builder().setRunInFixedPointLoop(false).setHotSwapable(false);
+    return new AutoValue_PassFactory.Builder()
+        .setRunInFixedPointLoop(false)
+        .setHotSwapable(false)
+        .setParallelizablePerScript(false);
   }
 
   public static Builder builderForHotSwap() {
-    return new AutoValue_PassFactory.Builder().setRunInFixedPointLoop(false).setHotSwapable(true);
+    return new AutoValue_PassFactory.Builder()
+        .setRunInFixedPointLoop(false)
+        .setHotSwapable(true)
+        .setParallelizablePerScript(false);
   }
 
   /** Create a no-op pass that can only run once. Used to break up loops. */
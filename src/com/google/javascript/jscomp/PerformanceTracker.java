@@ -35,7 +35,9 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 /**
  * A PerformanceTracker collects statistics about the runtime of each pass, and
@@ -94,6 +96,9 @@ public final class PerformanceTracker {
   /** Stats a single run of a compiler pass. */
   private final List<Stats> log = new ArrayList<>();
 
+  /** Totals of the events counted by passes, like the joins done by type inference. */
+  private final Map<String, Long> counters = new TreeMap<>();
+
   PerformanceTracker(Node externsRoot, Node jsRoot, TracerMode mode) {
     checkArgument(mode != TracerMode.OFF, "PerformanceTracker can't work without tracer data.");
     this.startTime = System.currentTimeMillis();
@@ -165,6 +170,16 @@ public final class PerformanceTracker {
     }
   }
 
+  /** Adds {@code count} to the total of the counter named {@code name}. */
+  synchronized void recordCounter(String name, long count) {
+    this.counters.merge(name, count, Long::sum);
+  }
+
+  /** Returns the totals of all counters, ordered by name. */
+  public synchronized ImmutableMap<String, Long> getCounters() {
+    return ImmutableMap.copyOf(this.counters);
+  }
+
   private void recordParsingStop(Stats logStats) {
     if (tracksAstManifest()) {
       populateAstManifest();
@@ -443,6 +458,18 @@ public final class PerformanceTracker {
               stats.gzSize));
     }
 
+    ImmutableMap<String, Long> counters = getCounters();
+    if (!counters.isEmpty()) {
+      output.println(
+          lines(
+              "", //
+              "Counters:",
+              "counter,count"));
+      for (Entry<String, Long> counter : counters.entrySet()) {
+        output.println(SimpleFormat.format("%s,%d", counter.getKey(), counter.getValue()));
+      }
+    }
+
     if (this.astManifest != null) {
       output.println(
           lines(
@@ -308,15 +308,22 @@ class PhaseOptimizer implements CompilerPass {
         tracker.recordPassStart(name, !factory.isRunInFixedPointLoop());
       }
       tracer = new Tracer("Compiler", name);
+      CompilerEvents.Span passEvent = CompilerEvents.beginPass(compiler, name, root);
 
       compiler.beforePass(name);
 
       // Delay the creation of the actual pass until *after* all previous passes
       // have been processed.
       // Some precondition checks rely on this, eg, in CoalesceVariableNames.
-      factory.create(compiler).process(externs, root);
+      int numParallelThreads = compiler.getOptions().numParallelThreads;
+      if (factory.isParallelizablePerScript() && numParallelThreads > 1) {
+        compiler.getParallelScriptPassRunner().process(compiler, factory, root);
+      } else {
+        factory.create(compiler).process(externs, root);
+      }
 
       compiler.afterPass(name);
+      passEvent.end();
 
       try {
         if (progressRange == null) {
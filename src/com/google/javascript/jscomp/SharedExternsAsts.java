@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.jscomp.parsing.parser.FeatureSet;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.Token;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Parsed externs that can be shared by any number of {@link Compiler} instances, including ones
+ * running at the same time.
+ *
+ * <p>The first compilation to parse an externs file stores a pristine copy of its AST. Later
+ * compilations that see the same file name, source text and parser {@link Config} get a copy of
+ * the stored AST instead of parsing the file again. The stored ASTs are never handed out
+ * directly, so passes are free to modify the copy they receive.
+ *
+ * <p>This is meant for processes that run many small compilations against the same externs, like
+ * {@link CompileServer}. Only parses that produced no errors or warnings are stored.
+ *
+ * @see CompilerOptions#setSharedExternsAsts
+ */
+public final class SharedExternsAsts {
+
+  /** Stored ASTs, keyed by the name of the externs file. */
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public SharedExternsAsts() {}
+
+  /** Returns the number of externs files with a stored AST. */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns a copy of the stored parse of {@code code}, bound to {@code sourceFile}, or null if
+   * there is no matching entry.
+   */
+  @Nullable
+  ParserRunner.ParseResult get(SourceFile sourceFile, String code, Config config) {
+    Entry entry = entries.get(sourceFile.getName());
+    if (entry == null || !entry.code.equals(code) || !entry.config.equals(config)) {
+      return null;
+    }
+    return new ParserRunner.ParseResult(
+        copyFor(entry.ast, sourceFile),
+        ImmutableList.of(),
+        entry.features,
+        entry.sourceMapURL,
+        entry.lineOffsets);
+  }
+
+  /**
+   * Stores a freshly parsed externs AST. Must be called before any pass has modified {@code
+   * result.ast}.
+   */
+  void put(SourceFile sourceFile, String code, Config config, ParserRunner.ParseResult result) {
+    entries.put(
+        sourceFile.getName(),
+        new Entry(
+            code,
+            config,
+            result.ast.cloneTree(/* cloneTypeExprs= */ true),
+            result.features,
+            result.sourceMapURL,
+            result.lineOffsets));
+  }
+
+  private static Node copyFor(Node ast, SourceFile sourceFile) {
+    Node copy = ast.cloneTree(/* cloneTypeExprs= */ true);
+    // All nodes from one parse have the same source file, so let them share one prop array as the
+    // parser does.
+    Node template = new Node(Token.SCRIPT);
+    template.setStaticSourceFile(sourceFile);
+    NodeUtil.Visitor rebind =
+        new NodeUtil.Visitor() {
+          @Override
+          public void visit(Node n) {
+            n.setStaticSourceFileFrom(template);
+            JSDocInfo info = n.getJSDocInfo();
+            if (info != null) {
+              for (Node typeNode : info.getTypeNodes()) {
+                NodeUtil.visitPreOrder(typeNode, this);
+              }
+            }
+          }
+        };
+    NodeUtil.visitPreOrder(copy, rebind);
+    return copy;
+  }
+
+  private static final class Entry {
+    final String code;
+    final Config config;
+    final Node ast;
+    final FeatureSet features;
+    @Nullable final String sourceMapURL;
+    @Nullable final int[] lineOffsets;
+
+    Entry(
+        String code,
+        Config config,
+        Node ast,
+        FeatureSet features,
+        @Nullable String sourceMapURL,
+        @Nullable int[] lineOffsets) {
+      this.code = code;
+      this.config = config;
+      this.ast = ast;
+      this.features = features;
+      this.sourceMapURL = sourceMapURL;
+      this.lineOffsets = lineOffsets;
+    }
+  }
+}
@@ -36,7 +36,9 @@ import java.io.Serializable;
 import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -83,6 +85,10 @@ public class SourceFile implements StaticSourceFile, Serializable {
   // Source Line Information
   private transient int[] lineOffsets = null;
 
+  // The length and hash of code dropped by releaseCodeKeepingLineOffsets, or -1 if none was.
+  private transient int releasedCodeLength = -1;
+  private transient int releasedCodeHash;
+
   private transient String code = null;
 
   /**
@@ -129,12 +135,17 @@ public class SourceFile implements StaticSourceFile, Serializable {
       return;
     }
     try {
-      String[] sourceLines = getCode().split("\n", -1);
-      lineOffsets = new int[sourceLines.length];
-      for (int ii = 1; ii < sourceLines.length; ++ii) {
-        lineOffsets[ii] =
-            lineOffsets[ii - 1] + sourceLines[ii - 1].length() + 1;
+      String code = getCode();
+      int numLines = 1;
+      for (int i = code.indexOf('\n'); i != -1; i = code.indexOf('\n', i + 1)) {
+        numLines++;
+      }
+      int[] offsets = new int[numLines];
+      int line = 1;
+      for (int i = code.indexOf('\n'); i != -1; i = code.indexOf('\n', i + 1)) {
+        offsets[line++] = i + 1;
       }
+      lineOffsets = offsets;
     } catch (IOException e) {
       lineOffsets = new int[1];
       lineOffsets[0] = 0;
@@ -145,6 +156,14 @@ public class SourceFile implements StaticSourceFile, Serializable {
     lineOffsets = null;
   }
 
+  /**
+   * Sets the line offsets of the current code, as found while parsing it, so they are not computed
+   * from the code again.
+   */
+  void setLineOffsets(int[] lineOffsets) {
+    this.lineOffsets = checkNotNull(lineOffsets);
+  }
+
   /**
    * Gets all the code in this source file.
    * @throws IOException
@@ -190,6 +209,50 @@ public class SourceFile implements StaticSourceFile, Serializable {
     return code != null;
   }
 
+  /**
+   * Drops the code from memory once it has been parsed, for SourceFile types that can read it again
+   * when it is next asked for, e.g. for an error excerpt or for the contents of a source map. The
+   * line offsets are computed first and kept, as nodes look them up throughout the compilation.
+   *
+   * @see CompilerOptions#setReleaseSourceTextAfterParse
+   */
+  void releaseCodeAfterParse() {
+    // By default, do nothing. Not all kinds of SourceFiles can regenerate code.
+  }
+
+  /**
+   * Drops the code from memory but keeps its line offsets, along with the length and hash of the
+   * code so that {@link #checkUnchangedSinceRelease} can tell whether rereading it gave the same
+   * text.
+   */
+  final void releaseCodeKeepingLineOffsets() {
+    findLineOffsets();
+    releasedCodeLength = code.length();
+    releasedCodeHash = code.hashCode();
+    code = null;
+  }
+
+  /**
+   * Throws if {@code code}, just read back after {@link #releaseCodeKeepingLineOffsets}, is not the
+   * text that was released. The AST and the line offsets were built from the released text, so a
+   * changed file would silently report the wrong positions and excerpts. Must be called before the
+   * code is set, which drops the line offsets.
+   */
+  final void checkUnchangedSinceRelease(String code) throws IOException {
+    if (releasedCodeLength == -1) {
+      return;
+    }
+    String text = code.startsWith(UTF8_BOM) ? code.substring(UTF8_BOM.length()) : code;
+    if (text.length() != releasedCodeLength || text.hashCode() != releasedCodeHash) {
+      throw new IOException("Input changed after it was parsed: " + getName());
+    }
+  }
+
+  /** Forgets about released code, after the code was replaced. */
+  final void forgetReleasedCode() {
+    releasedCodeLength = -1;
+  }
+
   /** Returns a unique name for the source file. */
   @Override
   public String getName() {
@@ -664,17 +727,21 @@ public class SourceFile implements StaticSourceFile, Serializable {
       setOriginalPath(originalPath);
     }
 
+    // Whether the code in memory was set with setCode, so it differs from the file on disk.
+    private transient boolean codeOverridden = false;
+
     @Override
     public synchronized String getCode() throws IOException {
       String cachedCode = super.getCode();
 
       if (cachedCode == null) {
-        try (Reader r = getCodeReader()) {
-          cachedCode = CharStreams.toString(r);
+        try {
+          cachedCode = readCode();
         } catch (java.nio.charset.MalformedInputException e) {
           throw new IOException("Failed to read: " + path + ", is this input UTF-8 encoded?", e);
         }
 
+        checkUnchangedSinceRelease(cachedCode);
         super.setCode(cachedCode);
         // Byte Order Mark can be removed by setCode
         cachedCode = super.getCode();
@@ -682,6 +749,20 @@ public class SourceFile implements StaticSourceFile, Serializable {
       return cachedCode;
     }
 
+    /**
+     * Reads the code from disk in one go, which avoids growing a buffer for the characters the way
+     * reading through {@link #getCodeReader} would.
+     */
+    private String readCode() throws IOException {
+      // Decode like Files.newBufferedReader does, rejecting malformed input.
+      return inputCharset
+          .newDecoder()
+          .onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT)
+          .decode(ByteBuffer.wrap(Files.readAllBytes(path)))
+          .toString();
+    }
+
     /**
      * Gets a reader for the code in this source file.
      */
@@ -695,11 +776,28 @@ public class SourceFile implements StaticSourceFile, Serializable {
       }
     }
 
+    @Override
+    void setCode(String sourceCode) {
+      super.setCode(sourceCode);
+      codeOverridden = sourceCode != null;
+      forgetReleasedCode();
+    }
+
+    // The code can be read off disk again, as long as nobody replaced it.
+    @Override
+    synchronized void releaseCodeAfterParse() {
+      if (hasSourceInMemory() && !codeOverridden) {
+        releaseCodeKeepingLineOffsets();
+      }
+    }
+
     // Flush the cached code after the compile; we can read it off disk
     // if we need it again.
     @Override
     public void clearCachedSource() {
       super.setCode(null);
+      codeOverridden = false;
+      forgetReleasedCode();
     }
 
     @GwtIncompatible("ObjectOutputStream")
@@ -729,6 +827,8 @@ public class SourceFile implements StaticSourceFile, Serializable {
     private static final long serialVersionUID = 1L;
     private final ZipEntryReader zipEntryReader;
     private transient Charset inputCharset;
+    // Whether the code in memory was set with setCode, so it differs from the zip entry.
+    private transient boolean codeOverridden = false;
 
     AtZip(ZipEntryReader zipEntryReader, String originalPath, Charset c, SourceKind kind) {
       super(originalPath, kind);
@@ -743,6 +843,7 @@ public class SourceFile implements StaticSourceFile, Serializable {
 
       if (cachedCode == null) {
         cachedCode = zipEntryReader.read(inputCharset);
+        checkUnchangedSinceRelease(cachedCode);
         super.setCode(cachedCode);
         // Byte Order Mark can be removed by setCode
         cachedCode = super.getCode();
@@ -763,11 +864,28 @@ public class SourceFile implements StaticSourceFile, Serializable {
       }
     }
 
+    @Override
+    void setCode(String sourceCode) {
+      super.setCode(sourceCode);
+      codeOverridden = sourceCode != null;
+      forgetReleasedCode();
+    }
+
+    // The code can be read from the zip again, as long as nobody replaced it.
+    @Override
+    synchronized void releaseCodeAfterParse() {
+      if (hasSourceInMemory() && !codeOverridden) {
+        releaseCodeKeepingLineOffsets();
+      }
+    }
+
     // Flush the cached code after the compile; we can read it from the URL
     // if we need it again.
     @Override
     public void clearCachedSource() {
       super.setCode(null);
+      codeOverridden = false;
+      forgetReleasedCode();
     }
 
     @GwtIncompatible("ObjectOutputStream")
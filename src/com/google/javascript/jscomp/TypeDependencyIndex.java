@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.javascript.jscomp.NodeTraversal.AbstractPostOrderCallback;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records which files each file depends on for type information: a file depends on another if it
+ * references a global name, or names a type in JSDoc, that the other file declares.
+ *
+ * <p>This lets a watch-mode client decide which files may be affected by an edit: a changed file
+ * can only introduce type errors in itself and in the files that transitively depend on it. The
+ * compiler itself still type checks the whole program.
+ */
+public final class TypeDependencyIndex {
+
+  /** Maps a file name to the names of the files it depends on. */
+  private final ImmutableSetMultimap<String, String> dependencies;
+
+  private TypeDependencyIndex(ImmutableSetMultimap<String, String> dependencies) {
+    this.dependencies = dependencies;
+  }
+
+  /** Builds the index for the program under {@code jsRoot} once global type inference has run. */
+  static TypeDependencyIndex create(AbstractCompiler compiler, Node jsRoot, TypedScope topScope) {
+    checkArgument(jsRoot.isRoot(), jsRoot);
+    checkArgument(topScope.isGlobal(), topScope);
+    Collector collector = new Collector(topScope);
+    NodeTraversal.traverse(compiler, jsRoot, collector);
+    return new TypeDependencyIndex(collector.dependencies.build());
+  }
+
+  /** Returns the files that {@code fileName} directly depends on. */
+  public ImmutableSet<String> getDependencies(String fileName) {
+    return dependencies.get(fileName);
+  }
+
+  /**
+   * Returns the given files together with every file that transitively depends on one of them.
+   * These are the only files whose type check results can change when {@code changedFiles} do.
+   */
+  public ImmutableSet<String> getFilesAffectedBy(Collection<String> changedFiles) {
+    SetMultimap<String, String> dependents = dependencies.inverse();
+    Set<String> affected = new LinkedHashSet<>(changedFiles);
+    Deque<String> worklist = new ArrayDeque<>(changedFiles);
+    while (!worklist.isEmpty()) {
+      for (String dependent : dependents.get(worklist.remove())) {
+        if (affected.add(dependent)) {
+          worklist.add(dependent);
+        }
+      }
+    }
+    return ImmutableSet.copyOf(affected);
+  }
+
+  /**
+   * Returns a line-based text form of this index, one "file TAB dependency" pair per line, that
+   * can be read back with {@link #parse}.
+   */
+  public String serialize() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, String> entry : dependencies.entries()) {
+      sb.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /** Reads an index written by {@link #serialize}. */
+  public static TypeDependencyIndex parse(String serialized) {
+    ImmutableSetMultimap.Builder<String, String> dependencies = ImmutableSetMultimap.builder();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(serialized)) {
+      List<String> parts = Splitter.on('\t').splitToList(line);
+      checkArgument(parts.size() == 2, "Malformed type dependency entry: %s", line);
+      dependencies.put(parts.get(0), parts.get(1));
+    }
+    return new TypeDependencyIndex(dependencies.build());
+  }
+
+  private static final class Collector extends AbstractPostOrderCallback {
+    private final TypedScope topScope;
+    private final ImmutableSetMultimap.Builder<String, String> dependencies =
+        ImmutableSetMultimap.builder();
+
+    Collector(TypedScope topScope) {
+      this.topScope = topScope;
+    }
+
+    @Override
+    public void visit(NodeTraversal t, Node n, Node parent) {
+      JSDocInfo info = n.getJSDocInfo();
+      if (info != null) {
+        for (Node typeNode : info.getTypeNodes()) {
+          visitTypeExpression(t.getSourceName(), typeNode);
+        }
+      }
+
+      if (!n.isQualifiedName()) {
+        return;
+      }
+      if (parent != null && parent.isGetProp() && n.isFirstChildOf(parent)) {
+        // Only look at the outermost node of each qualified name.
+        return;
+      }
+      Node root = NodeUtil.getRootOfQualifiedName(n);
+      if (!root.isName()) {
+        // e.g. this.x or super.x
+        return;
+      }
+      Var var = t.getScope().getVar(root.getString());
+      if (var != null && var.isGlobal()) {
+        recordLongestDeclaredPrefix(t.getSourceName(), n.getQualifiedName());
+      }
+    }
+
+    private void visitTypeExpression(String fileName, Node typeNode) {
+      if (typeNode.isString()) {
+        recordLongestDeclaredPrefix(fileName, typeNode.getString());
+      }
+      for (Node child = typeNode.getFirstChild(); child != null; child = child.getNext()) {
+        visitTypeExpression(fileName, child);
+      }
+    }
+
+    /**
+     * Records a dependency on the file declaring the longest prefix of {@code qualifiedName} that
+     * is a declared global slot, e.g. "a.b" for a reference to "a.b.c.d" if "a.b.c" is undeclared.
+     */
+    private void recordLongestDeclaredPrefix(String fileName, String qualifiedName) {
+      String name = qualifiedName;
+      while (true) {
+        TypedVar var = topScope.getOwnSlot(name);
+        if (var != null) {
+          if (var.getInput() != null && !var.isExtern()) {
+            String declaringFile = var.getInputName();
+            if (!declaringFile.equals(fileName)) {
+              dependencies.put(fileName, declaringFile);
+            }
+          }
+          return;
+        }
+        int lastDot = name.lastIndexOf('.');
+        if (lastDot == -1) {
+          return;
+        }
+        name = name.substring(0, lastDot);
+      }
+    }
+  }
+}
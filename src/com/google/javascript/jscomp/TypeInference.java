@@ -134,6 +134,11 @@ class TypeInference extends DataFlowAnalysis.BranchedForwardDataFlowAnalysis<Nod
             compiler, TypedScope.createLatticeBottom(syntacticScope.getRootNode()));
   }
 
+  /** Returns the op joining the flow scopes of this analysis, which counts the joins it does. */
+  LinkedFlowScope.FlowScopeJoinOp getFlowScopeJoinOp() {
+    return (LinkedFlowScope.FlowScopeJoinOp) joinOp;
+  }
+
   @CheckReturnValue
   private FlowScope inferDeclarativelyUnboundVarsWithoutTypes(FlowScope flow) {
     TypedScope scope = (TypedScope) flow.getDeclarationScope();
@@ -27,6 +27,9 @@ import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.jstype.JSType;
 import com.google.javascript.rhino.jstype.JSTypeRegistry;
 import com.google.javascript.rhino.jstype.JSTypeResolver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 /** A compiler pass to run the type inference analysis. */
 class TypeInferencePass {
@@ -35,6 +38,9 @@ class TypeInferencePass {
       "JSC_INTERNAL_ERROR_DATAFLOW",
       "non-monotonic data-flow analysis");
 
+  /** How many control flow graphs each thread builds ahead of inference in parallel mode. */
+  private static final int CFGS_PER_THREAD_PER_BATCH = 256;
+
   private final AbstractCompiler compiler;
   private final JSTypeRegistry registry;
   private final ReverseAbstractInterpreter reverseInterpreter;
@@ -42,6 +48,10 @@ class TypeInferencePass {
   private final TypedScopeCreator scopeCreator;
   private final AssertionFunctionLookup assertionFunctionLookup;
 
+  // Totals over all inferred scopes, reported to the PerformanceTracker.
+  private long flowScopeJoinCount = 0;
+  private long allocatingFlowScopeJoinCount = 0;
+
   TypeInferencePass(
       AbstractCompiler compiler,
       ReverseAbstractInterpreter reverseInterpreter,
@@ -106,8 +116,15 @@ class TypeInferencePass {
     }
     scopeCreator.undoTypeAliasChains();
 
-    new NodeTraversal(compiler, new SecondScopeBuildingCallback(), scopeCreator)
-        .traverseWithScope(inferenceRoot, this.topScope);
+    int numParallelThreads = compiler.getOptions().numParallelThreads;
+    if (numParallelThreads > 1) {
+      inferScopesWithParallelCfgs(inferenceRoot, numParallelThreads);
+    } else {
+      new NodeTraversal(compiler, new SecondScopeBuildingCallback(this::inferScope), scopeCreator)
+          .traverseWithScope(inferenceRoot, this.topScope);
+    }
+
+    recordCounters();
 
     // Normalize TypedVars to have the '?' type instead of null after inference is complete. This
     // currently cannot be done any earlier because it breaks inference of variables assigned in
@@ -123,11 +140,50 @@ class TypeInferencePass {
     return this.topScope;
   }
 
+  /**
+   * Infers all scopes in the same order as the serial traversal, but builds their control flow
+   * graphs on several threads first.
+   *
+   * <p>Inference itself stays serial: it reads the types inferred for enclosing scopes and defines
+   * properties on types shared by the whole program, so its results and the order of its warnings
+   * depend on the order in which scopes are inferred. Building a CFG only reads the AST, and every
+   * CFG of a batch is built before any scope in it is inferred, so no thread ever reads nodes that
+   * inference is updating.
+   */
+  private void inferScopesWithParallelCfgs(Node inferenceRoot, int numParallelThreads) {
+    List<Node> scopeRoots = new ArrayList<>();
+    List<TypedScope> scopes = new ArrayList<>();
+    new NodeTraversal(
+            compiler,
+            new SecondScopeBuildingCallback(
+                (n, scope) -> {
+                  scopeRoots.add(n);
+                  scopes.add(scope);
+                }),
+            scopeCreator)
+        .traverseWithScope(inferenceRoot, this.topScope);
+
+    // Only keep a bounded number of CFGs alive at once.
+    int batchSize = numParallelThreads * CFGS_PER_THREAD_PER_BATCH;
+    for (int start = 0; start < scopeRoots.size(); start += batchSize) {
+      List<Node> batch = scopeRoots.subList(start, Math.min(start + batchSize, scopeRoots.size()));
+      List<ControlFlowGraph<Node>> cfgs =
+          compiler.getParallelScriptPassRunner().mapInParallel(batch, this::computeCfg);
+      for (int i = 0; i < batch.size(); i++) {
+        inferScope(batch.get(i), scopes.get(start + i), cfgs.get(i));
+      }
+    }
+  }
+
   private void inferScope(Node n, TypedScope scope) {
+    inferScope(n, scope, computeCfg(n));
+  }
+
+  private void inferScope(Node n, TypedScope scope, ControlFlowGraph<Node> cfg) {
     TypeInference typeInference =
         new TypeInference(
             compiler,
-            computeCfg(n),
+            cfg,
             reverseInterpreter,
             scope,
             scopeCreator,
@@ -136,9 +192,24 @@ class TypeInferencePass {
       typeInference.analyze();
     } catch (DataFlowAnalysis.MaxIterationsExceededException e) {
       compiler.report(JSError.make(n, DATAFLOW_ERROR));
+    } finally {
+      LinkedFlowScope.FlowScopeJoinOp joinOp = typeInference.getFlowScopeJoinOp();
+      flowScopeJoinCount += joinOp.getJoinCount();
+      allocatingFlowScopeJoinCount += joinOp.getAllocatingJoinCount();
     }
   }
 
+  private void recordCounters() {
+    PerformanceTracker tracker = compiler.getPerformanceTracker();
+    if (tracker != null) {
+      tracker.recordCounter("typeInference.flowScopeJoins", flowScopeJoinCount);
+      tracker.recordCounter(
+          "typeInference.allocatingFlowScopeJoins", allocatingFlowScopeJoinCount);
+    }
+    flowScopeJoinCount = 0;
+    allocatingFlowScopeJoinCount = 0;
+  }
+
   private static class FirstScopeBuildingCallback extends AbstractScopedCallback {
     @Override
     public void enterScope(NodeTraversal t) {
@@ -151,7 +222,13 @@ class TypeInferencePass {
     }
   }
 
-  private class SecondScopeBuildingCallback extends AbstractScopedCallback {
+  private static class SecondScopeBuildingCallback extends AbstractScopedCallback {
+    private final BiConsumer<Node, TypedScope> inferScope;
+
+    SecondScopeBuildingCallback(BiConsumer<Node, TypedScope> inferScope) {
+      this.inferScope = inferScope;
+    }
+
     @Override
     public void enterScope(NodeTraversal t) {
       // Only infer the entry root, rather than the scope root.
@@ -161,7 +238,7 @@ class TypeInferencePass {
       if (!scope.isBlockScope() && !scope.isModuleScope()) {
         // ignore scopes that don't have their own CFGs and module scopes, which are visited
         // as if they were a regular script.
-        inferScope(t.getCurrentNode(), scope);
+        inferScope.accept(t.getCurrentNode(), scope);
       }
     }
 
@@ -30,6 +30,7 @@ import com.google.javascript.jscomp.JSError;
 import com.google.javascript.jscomp.deps.ModuleLoader.ModuleResolverFactory;
 import com.google.javascript.jscomp.deps.ModuleLoader.PathEscaper;
 import java.util.Comparator;
+import java.util.Objects;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -62,6 +63,17 @@ public class BrowserWithTransformedPrefixesModuleResolver extends ModuleResolver
       return new BrowserWithTransformedPrefixesModuleResolver(
           modulePaths, moduleRootPaths, errorHandler, pathEscaper, prefixReplacements);
     }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Factory
+          && Objects.equals(prefixReplacements, ((Factory) other).prefixReplacements);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(prefixReplacements);
+    }
   }
 
   /**
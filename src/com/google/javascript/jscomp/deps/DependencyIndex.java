@@ -0,0 +1,314 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static java.util.Comparator.comparingLong;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * An index of inputs by the symbols they provide that can be updated one input at a time, for
+ * callers that keep answering dependency queries while files change, like a development server.
+ *
+ * <p>Inputs are identified by {@link DependencyInfo#getName()}. Adding, replacing or removing an
+ * input only touches the entries for the symbols it provides, and closure queries like {@link
+ * #getSortedStrongDependenciesOf} only visit the inputs reachable from the roots, so neither needs
+ * to look at the rest of the index.
+ *
+ * <p>Symbols are resolved the same way as in {@link Es6SortedDependencies}: when several inputs
+ * provide a symbol, the one added last wins, and replacing an input keeps its place in that order.
+ * Closure queries traverse the graph starting from the roots in the order given, so each input
+ * still comes after its dependencies, but inputs that are unrelated to each other may be ordered
+ * differently than in {@link Es6SortedDependencies}, which starts a traversal from every input.
+ * {@link #getSortedList()} does visit every input and matches {@link Es6SortedDependencies}, and
+ * so does {@link #getSortedWeakDependenciesOf}, which orders its result by {@link
+ * #getSortedList()}. That order is cached until the index next changes.
+ *
+ * <p>This class is not thread safe.
+ */
+public final class DependencyIndex<INPUT extends DependencyInfo>
+    implements SortedDependencies<INPUT> {
+
+  /** All inputs by name, in the order they were first added. */
+  private final Map<String, INPUT> inputsByName = new LinkedHashMap<>();
+  /** The order in which each name was first added, used to pick between duplicate provides. */
+  private final Map<String, Long> positionByName = new HashMap<>();
+  private final SetMultimap<String, INPUT> inputsBySymbolName = HashMultimap.create();
+  private final Map<String, INPUT> exportingInputBySymbolName = new HashMap<>();
+  private final SetMultimap<String, INPUT> nonExportingInputsByModuleName = HashMultimap.create();
+  private final Map<String, INPUT> nonExportingInputs = new HashMap<>();
+  private long nextPosition = 0;
+
+  /** The order of all inputs, or null if it needs to be recomputed. */
+  @Nullable private ImmutableList<INPUT> sortedList;
+
+  public DependencyIndex() {}
+
+  public DependencyIndex(List<INPUT> userOrderedInputs) {
+    for (INPUT input : userOrderedInputs) {
+      put(input);
+    }
+  }
+
+  /** Returns the number of inputs in the index. */
+  public int size() {
+    return inputsByName.size();
+  }
+
+  /**
+   * Adds {@code input} to the index, replacing any input with the same name.
+   *
+   * @return the input that was replaced, or null
+   */
+  @Nullable
+  public INPUT put(INPUT input) {
+    String name = input.getName();
+    INPUT previous = inputsByName.put(name, input);
+    if (previous != null) {
+      unindex(previous);
+    } else {
+      positionByName.put(name, nextPosition++);
+    }
+    index(input);
+    sortedList = null;
+    return previous;
+  }
+
+  /**
+   * Removes the input named {@code name} from the index.
+   *
+   * @return the input that was removed, or null if there was none
+   */
+  @Nullable
+  public INPUT remove(String name) {
+    INPUT previous = inputsByName.get(name);
+    if (previous == null) {
+      return null;
+    }
+    unindex(previous);
+    inputsByName.remove(name);
+    positionByName.remove(name);
+    sortedList = null;
+    return previous;
+  }
+
+  @Override
+  public INPUT getInputProviding(String symbolName) throws MissingProvideException {
+    INPUT input = maybeGetInputProviding(symbolName);
+    if (input != null) {
+      return input;
+    }
+
+    throw new MissingProvideException(symbolName);
+  }
+
+  @Override
+  public INPUT maybeGetInputProviding(String symbol) {
+    if (exportingInputBySymbolName.containsKey(symbol)) {
+      return exportingInputBySymbolName.get(symbol);
+    }
+
+    return nonExportingInputs.get(ModuleNames.fileToModuleName(symbol));
+  }
+
+  @Override
+  public ImmutableList<INPUT> getInputsWithoutProvides() {
+    return inUserOrder(nonExportingInputs.values());
+  }
+
+  @Override
+  public ImmutableList<INPUT> getSortedList() {
+    if (sortedList == null) {
+      sortedList = order(inputsByName.values());
+    }
+    return sortedList;
+  }
+
+  @Override
+  public ImmutableList<INPUT> getSortedStrongDependenciesOf(List<INPUT> roots) {
+    return getStrongDependenciesOf(roots, true);
+  }
+
+  @Override
+  public ImmutableList<INPUT> getStrongDependenciesOf(List<INPUT> rootInputs, boolean sorted) {
+    if (sorted) {
+      return order(rootInputs);
+    }
+
+    Set<INPUT> includedInputs = new HashSet<>();
+    Deque<INPUT> worklist = new ArrayDeque<>(rootInputs);
+    while (!worklist.isEmpty()) {
+      INPUT input = worklist.pop();
+      if (includedInputs.add(input)) {
+        for (String symbolName : input.getRequiredSymbols()) {
+          INPUT importedInput = exportingInputBySymbolName.get(symbolName);
+          if (importedInput != null) {
+            worklist.add(importedInput);
+          }
+        }
+      }
+    }
+    return inUserOrder(includedInputs);
+  }
+
+  @Override
+  public ImmutableList<INPUT> getSortedWeakDependenciesOf(List<INPUT> rootInputs) {
+    Set<INPUT> strongInputs = new HashSet<>(getSortedStrongDependenciesOf(rootInputs));
+    Set<INPUT> weakInputs = new HashSet<>();
+    Deque<INPUT> worklist = new ArrayDeque<>(strongInputs);
+    while (!worklist.isEmpty()) {
+      INPUT input = worklist.pop();
+      boolean isStrong = strongInputs.contains(input);
+
+      Iterable<String> edges =
+          isStrong
+              ? input.getTypeRequires()
+              : Iterables.concat(input.getRequiredSymbols(), input.getTypeRequires());
+
+      if (!isStrong && !weakInputs.add(input)) {
+        continue;
+      }
+
+      for (String symbolName : edges) {
+        INPUT importedInput = exportingInputBySymbolName.get(symbolName);
+        if (importedInput != null
+            && !strongInputs.contains(importedInput)
+            && !weakInputs.contains(importedInput)) {
+          worklist.add(importedInput);
+        }
+      }
+    }
+
+    ImmutableList.Builder<INPUT> builder = ImmutableList.builder();
+    for (INPUT input : getSortedList()) {
+      if (weakInputs.contains(input)) {
+        builder.add(input);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the inputs reachable from {@code roots} through required symbols, each one after the
+   * inputs it requires.
+   */
+  private ImmutableList<INPUT> order(Iterable<INPUT> roots) {
+    ImmutableList.Builder<INPUT> builder = ImmutableList.builder();
+    Set<INPUT> completedInputs = new HashSet<>();
+    for (INPUT root : roots) {
+      orderInput(root, completedInputs, builder);
+    }
+    return builder.build();
+  }
+
+  private void orderInput(
+      INPUT input, Set<INPUT> completedInputs, ImmutableList.Builder<INPUT> builder) {
+    if (!completedInputs.add(input)) {
+      return;
+    }
+
+    for (String symbolName : input.getRequiredSymbols()) {
+      INPUT importedInput = exportingInputBySymbolName.get(symbolName);
+      if (importedInput != null) {
+        orderInput(importedInput, completedInputs, builder);
+      }
+    }
+
+    // Emit an input after its imports have been emitted.
+    builder.add(input);
+  }
+
+  private ImmutableList<INPUT> inUserOrder(Collection<INPUT> inputs) {
+    List<INPUT> ordered = new ArrayList<>(inputs);
+    ordered.sort(comparingLong(this::getPosition));
+    return ImmutableList.copyOf(ordered);
+  }
+
+  private long getPosition(INPUT input) {
+    return positionByName.get(input.getName());
+  }
+
+  private void index(INPUT input) {
+    if (isNonExporting(input)) {
+      String moduleName = ModuleNames.fileToModuleName(input.getName());
+      nonExportingInputsByModuleName.put(moduleName, input);
+      updateLatest(nonExportingInputsByModuleName, nonExportingInputs, moduleName);
+    }
+    for (String providedSymbolName : input.getProvides()) {
+      inputsBySymbolName.put(providedSymbolName, input);
+      updateLatest(inputsBySymbolName, exportingInputBySymbolName, providedSymbolName);
+    }
+  }
+
+  private void unindex(INPUT input) {
+    if (isNonExporting(input)) {
+      String moduleName = ModuleNames.fileToModuleName(input.getName());
+      nonExportingInputsByModuleName.remove(moduleName, input);
+      updateLatest(nonExportingInputsByModuleName, nonExportingInputs, moduleName);
+    }
+    for (String providedSymbolName : input.getProvides()) {
+      inputsBySymbolName.remove(providedSymbolName, input);
+      updateLatest(inputsBySymbolName, exportingInputBySymbolName, providedSymbolName);
+    }
+  }
+
+  /**
+   * Resolves {@code key} in {@code resolved} to the input added last among its {@code candidates},
+   * or removes it if there are none.
+   */
+  private void updateLatest(
+      SetMultimap<String, INPUT> candidates, Map<String, INPUT> resolved, String key) {
+    INPUT latest = null;
+    for (INPUT input : candidates.get(key)) {
+      if (latest == null || getPosition(latest) < getPosition(input)) {
+        latest = input;
+      }
+    }
+    if (latest == null) {
+      resolved.remove(key);
+    } else {
+      resolved.put(key, latest);
+    }
+  }
+
+  private static boolean isNonExporting(DependencyInfo input) {
+    Collection<String> provides = input.getProvides();
+    String firstProvide = Iterables.getFirst(provides, null);
+    return firstProvide == null
+        // "module$" indicates the provide is generated from the path. If this is the only thing
+        // the module provides and it is not an ES6 module then it is just a script and doesn't
+        // export anything.
+        || (provides.size() == 1
+            && firstProvide.startsWith("module$")
+            // ES6 modules should always be considered as exporting something.
+            && !"es6".equals(input.getLoadFlags().get("module")));
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * A file holding the {@link DependencyInfo} scanned from sources by {@link DepsGenerator}, keyed
+ * by a hash of the file name, its closure relative path and its content, so that unchanged files
+ * are not scanned again.
+ *
+ * <p>Entries that were not used by a run are dropped when the cache is saved. A corrupt or
+ * unreadable cache file is treated as empty, and so is one naming a class that dependency info
+ * cannot contain.
+ */
+@GwtIncompatible("java.io")
+final class DependencyInfoCache {
+
+  private static final Logger logger = Logger.getLogger(DependencyInfoCache.class.getName());
+
+  /** Bump whenever the serialized form of DependencyInfo changes in an incompatible way. */
+  private static final int FORMAT_VERSION = 1;
+
+  private final Path file;
+  private final Map<String, DependencyInfo> previousEntries;
+  private final Map<String, DependencyInfo> usedEntries = new ConcurrentHashMap<>();
+  private volatile boolean changed = false;
+
+  private DependencyInfoCache(Path file, Map<String, DependencyInfo> previousEntries) {
+    this.file = file;
+    this.previousEntries = previousEntries;
+  }
+
+  /** Reads the cache stored in {@code file}, or starts an empty one if there is none. */
+  static DependencyInfoCache load(Path file) {
+    try (ObjectInputStream in =
+        new CacheInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() == FORMAT_VERSION) {
+        @SuppressWarnings("unchecked")
+        Map<String, DependencyInfo> entries = (Map<String, DependencyInfo>) in.readObject();
+        return new DependencyInfoCache(file, entries);
+      }
+    } catch (NoSuchFileException e) {
+      // Nothing was cached yet.
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.log(Level.FINE, "Ignoring unreadable deps cache " + file, e);
+    }
+    return new DependencyInfoCache(file, new HashMap<>());
+  }
+
+  /** Returns the cached info for {@code code}, or null if it was not cached. */
+  @Nullable
+  DependencyInfo get(String name, String closureRelativePath, String code) {
+    String key = getKey(name, closureRelativePath, code);
+    DependencyInfo info = previousEntries.get(key);
+    if (info != null) {
+      usedEntries.put(key, info);
+    }
+    return info;
+  }
+
+  void put(String name, String closureRelativePath, String code, DependencyInfo info) {
+    usedEntries.put(getKey(name, closureRelativePath, code), info);
+    changed = true;
+  }
+
+  /** Writes the entries used since the cache was loaded back to its file, if anything changed. */
+  void save() {
+    if (!changed && usedEntries.size() == previousEntries.size()) {
+      return;
+    }
+    Path tempFile = null;
+    try {
+      Path directory = file.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      // Write to a temporary file first so concurrent runs never see a partial cache.
+      tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeInt(FORMAT_VERSION);
+        objectOut.writeObject(new HashMap<>(usedEntries));
+        objectOut.flush();
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      tempFile = null;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to write deps cache " + file, e);
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+          // Leave the temporary file behind; it is never read as a cache.
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a cache file, rejecting every class that cannot be part of one. The file is not trusted
+   * to only name the classes written by {@link #save}, since plain Java deserialization of an
+   * arbitrary file could run code in the generator.
+   */
+  private static final class CacheInputStream extends ObjectInputStream {
+    private static final ImmutableSet<String> ALLOWED_CLASSES =
+        ImmutableSet.of(
+            "java.lang.Object",
+            "java.lang.Boolean",
+            "java.lang.Enum",
+            "java.lang.String",
+            "java.util.HashMap",
+            AutoValue_SimpleDependencyInfo.class.getName(),
+            SimpleDependencyInfo.class.getName(),
+            DependencyInfo.Base.class.getName(),
+            DependencyInfo.Require.class.getName(),
+            DependencyInfo.Require.Type.class.getName(),
+            AutoValue_DependencyInfo_Require.class.getName());
+
+    CacheInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      String name = desc.getName();
+      // Only object arrays are written, for the elements of Guava's immutable collections.
+      String element = name.equals("[Ljava.lang.Object;") ? "java.lang.Object" : name;
+      if (!ALLOWED_CLASSES.contains(element) && !element.startsWith("com.google.common.collect.")) {
+        throw new InvalidClassException(name, "not allowed in a deps cache");
+      }
+      return super.resolveClass(desc);
+    }
+  }
+
+  private static String getKey(String name, String closureRelativePath, String code) {
+    return Hashing.sha256()
+        .newHasher()
+        .putInt(FORMAT_VERSION)
+        .putInt(name.length())
+        .putString(name, UTF_8)
+        .putInt(closureRelativePath.length())
+        .putString(closureRelativePath, UTF_8)
+        .putString(code, UTF_8)
+        .hash()
+        .toString();
+  }
+}
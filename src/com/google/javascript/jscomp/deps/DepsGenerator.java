@@ -16,11 +16,15 @@
 
 package com.google.javascript.jscomp.deps;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.javascript.jscomp.BlackHoleErrorManager;
 import com.google.javascript.jscomp.CheckLevel;
 import com.google.javascript.jscomp.Compiler;
 import com.google.javascript.jscomp.CompilerOptions;
@@ -35,6 +39,7 @@ import com.google.javascript.jscomp.deps.ModuleLoader.ModulePath;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -43,9 +48,14 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Generates deps.js files by scanning JavaScript files for
@@ -68,6 +78,8 @@ public class DepsGenerator {
   private final InclusionStrategy mergeStrategy;
   private final ModuleLoader loader;
   final ErrorManager errorManager;
+  private int numParallelThreads = 1;
+  @Nullable private Path cacheFile = null;
 
   static final DiagnosticType ES6_IMPORT_FOR_NON_ES6_MODULE =
       DiagnosticType.warning(
@@ -117,6 +129,26 @@ public class DepsGenerator {
     this.loader = loader;
   }
 
+  /**
+   * Sets the number of threads used to scan sources. Scanning a source includes parsing it to find
+   * its language level, which dominates the cost of generating deps for large source sets.
+   */
+  public DepsGenerator setNumParallelThreads(int numParallelThreads) {
+    checkArgument(numParallelThreads > 0, "numParallelThreads must be positive");
+    this.numParallelThreads = numParallelThreads;
+    return this;
+  }
+
+  /**
+   * Sets a file in which the dependency info scanned from sources is kept between runs, so that
+   * sources whose name, path and content are unchanged are not scanned again. Null disables the
+   * cache.
+   */
+  public DepsGenerator setCacheFile(@Nullable Path cacheFile) {
+    this.cacheFile = cacheFile;
+    return this;
+  }
+
   /**
    * Performs the parsing inputs and writing of outputs.
    * @throws IOException Occurs upon an IO error.
@@ -454,20 +486,18 @@ public class DepsGenerator {
    */
   private Map<String, DependencyInfo> parseSources(
       Set<String> preparsedFiles) throws IOException {
-    Map<String, DependencyInfo> parsedFiles = new LinkedHashMap<>();
-    JsFileRegexParser jsParser = new JsFileRegexParser(errorManager).setModuleLoader(loader);
+    if (numParallelThreads > 1 || cacheFile != null) {
+      return scanSources(preparsedFiles);
+    }
+
     Compiler compiler = new Compiler();
     compiler.init(ImmutableList.of(), ImmutableList.of(), new CompilerOptions());
 
+    Map<String, DependencyInfo> parsedFiles = new LinkedHashMap<>();
+    JsFileRegexParser jsParser = new JsFileRegexParser(errorManager).setModuleLoader(loader);
     for (SourceFile file : srcs) {
-      String closureRelativePath =
-          PathUtil.makeRelative(
-              closurePathAbs, PathUtil.makeAbsolute(file.getName()));
-      if (logger.isLoggable(Level.FINE)) {
-        logger.fine("Closure-relative path: " + closureRelativePath);
-      }
-      if (InclusionStrategy.WHEN_IN_SRCS == mergeStrategy ||
-          !preparsedFiles.contains(closureRelativePath)) {
+      String closureRelativePath = getClosureRelativePath(file);
+      if (shouldParse(closureRelativePath, preparsedFiles)) {
         DependencyInfo depInfo =
             jsParser.parseFile(
                 file.getName(), closureRelativePath,
@@ -483,6 +513,122 @@ public class DepsGenerator {
     return parsedFiles;
   }
 
+  private String getClosureRelativePath(SourceFile file) {
+    String closureRelativePath =
+        PathUtil.makeRelative(
+            closurePathAbs, PathUtil.makeAbsolute(file.getName()));
+    if (logger.isLoggable(Level.FINE)) {
+      logger.fine("Closure-relative path: " + closureRelativePath);
+    }
+    return closureRelativePath;
+  }
+
+  private boolean shouldParse(String closureRelativePath, Set<String> preparsedFiles) {
+    return InclusionStrategy.WHEN_IN_SRCS == mergeStrategy
+        || !preparsedFiles.contains(closureRelativePath);
+  }
+
+  /**
+   * Like the sequential path of {@link #parseSources}, but scans sources on several threads and
+   * through the cache, resolving load flags right away instead of lazily. Diagnostics are
+   * reported in source order once all sources are scanned.
+   */
+  private Map<String, DependencyInfo> scanSources(Set<String> preparsedFiles)
+      throws IOException {
+    DependencyInfoCache cache = cacheFile == null ? null : DependencyInfoCache.load(cacheFile);
+    Map<String, SourceFile> filesToScan = new LinkedHashMap<>();
+    for (SourceFile file : srcs) {
+      String closureRelativePath = getClosureRelativePath(file);
+      if (shouldParse(closureRelativePath, preparsedFiles)) {
+        filesToScan.put(closureRelativePath, file);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(numParallelThreads);
+    Map<String, Future<ScannedSource>> futures = new LinkedHashMap<>();
+    try {
+      for (Map.Entry<String, SourceFile> entry : filesToScan.entrySet()) {
+        futures.put(
+            entry.getKey(),
+            executor.submit(() -> scanSource(entry.getValue(), entry.getKey(), cache)));
+      }
+
+      Map<String, DependencyInfo> parsedFiles = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<ScannedSource>> entry : futures.entrySet()) {
+        ScannedSource scanned = getUninterruptibly(entry.getValue());
+        for (JSError error : scanned.diagnostics.getErrors()) {
+          errorManager.report(CheckLevel.ERROR, error);
+        }
+        for (JSError warning : scanned.diagnostics.getWarnings()) {
+          errorManager.report(CheckLevel.WARNING, warning);
+        }
+        parsedFiles.put(entry.getKey(), scanned.info);
+      }
+      if (cache != null) {
+        cache.save();
+      }
+      return parsedFiles;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private ScannedSource scanSource(
+      SourceFile file, String closureRelativePath, @Nullable DependencyInfoCache cache)
+      throws IOException {
+    ErrorManager diagnostics = new BlackHoleErrorManager();
+    String code = file.getCode();
+    DependencyInfo depInfo =
+        cache == null ? null : cache.get(file.getName(), closureRelativePath, code);
+    if (depInfo == null) {
+      depInfo =
+          new JsFileRegexParser(diagnostics)
+              .setModuleLoader(loader)
+              .parseFile(file.getName(), closureRelativePath, code);
+      // Resolve the load flags now, which parses the source, rather than when writing deps. The
+      // Compiler is not thread safe, so each source gets its own, which reports the parse errors
+      // and module conflicts to the diagnostics of this source.
+      Compiler compiler = new Compiler(diagnostics);
+      compiler.init(ImmutableList.of(), ImmutableList.of(), new CompilerOptions());
+      depInfo =
+          SimpleDependencyInfo.Builder.from(
+                  new LazyParsedDependencyInfo(depInfo, new JsAst(file), compiler))
+              .build();
+      // Imports of ES6 modules are resolved against the other sources, which may have changed.
+      if (cache != null
+          && diagnostics.getErrorCount() == 0
+          && diagnostics.getWarningCount() == 0
+          && !"es6".equals(depInfo.getLoadFlags().get("module"))) {
+        cache.put(file.getName(), closureRelativePath, code, depInfo);
+      }
+    }
+
+    // Kick the source out of memory.
+    file.clearCachedSource();
+    return new ScannedSource(depInfo, diagnostics);
+  }
+
+  private static <T> T getUninterruptibly(Future<T> future) throws IOException {
+    try {
+      return Uninterruptibles.getUninterruptibly(future);
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** The dependency info of a source, along with the diagnostics reported while scanning it. */
+  private static final class ScannedSource {
+    final DependencyInfo info;
+    final ErrorManager diagnostics;
+
+    ScannedSource(DependencyInfo info, ErrorManager diagnostics) {
+      this.info = info;
+      this.diagnostics = diagnostics;
+    }
+  }
+
   /**
    * Creates the content to put into the output deps.js file. If mergeDeps is
    * true, then all of the dependency information in the providedDeps will be
@@ -77,6 +77,9 @@ public final class ModuleLoader {
 
   private final ModuleResolver moduleResolver;
 
+  /** Resolutions shared with other loaders with the same configuration, or null. */
+  @Nullable private final ModuleResolutionCache.Resolutions cachedResolutions;
+
   /**
    * Creates an instance of the module loader which can be used to locate ES6 and CommonJS modules.
    *
@@ -86,6 +89,7 @@ public final class ModuleLoader {
    * @param factory creates a module resolver, which determines how module identifiers are resolved
    * @param pathResolver determines how to sanitize paths before resolving
    * @param pathEscaper determines if / how paths should be escaped
+   * @param resolutionCache resolutions to share with other loaders, or null to not share them
    */
   public ModuleLoader(
       @Nullable ErrorHandler errorHandler,
@@ -93,7 +97,8 @@ public final class ModuleLoader {
       Iterable<? extends DependencyInfo> inputs,
       ModuleResolverFactory factory,
       PathResolver pathResolver,
-      PathEscaper pathEscaper) {
+      PathEscaper pathEscaper,
+      @Nullable ModuleResolutionCache resolutionCache) {
     checkNotNull(moduleRoots);
     checkNotNull(inputs);
     checkNotNull(pathResolver);
@@ -109,6 +114,28 @@ public final class ModuleLoader {
             pathEscaper);
     this.moduleResolver =
         factory.create(modulePaths, this.moduleRootPaths, this.errorHandler, this.pathEscaper);
+    this.cachedResolutions =
+        resolutionCache == null
+            ? null
+            : resolutionCache.getResolutions(
+                ImmutableList.of(factory, moduleRootPaths, modulePaths, pathEscaper));
+  }
+
+  public ModuleLoader(
+      @Nullable ErrorHandler errorHandler,
+      Iterable<String> moduleRoots,
+      Iterable<? extends DependencyInfo> inputs,
+      ModuleResolverFactory factory,
+      PathResolver pathResolver,
+      PathEscaper pathEscaper) {
+    this(
+        errorHandler,
+        moduleRoots,
+        inputs,
+        factory,
+        pathResolver,
+        pathEscaper,
+        /* resolutionCache= */ null);
   }
 
   public ModuleLoader(
@@ -186,10 +213,23 @@ public final class ModuleLoader {
     @Nullable
     public ModulePath resolveJsModule(
         String moduleAddress, String sourcename, int lineno, int colno) {
+      String directory = null;
+      if (cachedResolutions != null) {
+        // Resolvers only look at the directory of the importing file.
+        directory = path.substring(0, path.lastIndexOf(MODULE_SLASH) + 1);
+        String cachedAddress = cachedResolutions.get(directory, moduleAddress);
+        if (cachedAddress != null) {
+          return new ModulePath(cachedAddress);
+        }
+      }
+
       String loadAddress =
           moduleResolver.resolveJsModule(this.path, moduleAddress, sourcename, lineno, colno);
 
       if (loadAddress != null) {
+        if (cachedResolutions != null) {
+          cachedResolutions.put(directory, moduleAddress, loadAddress);
+        }
         return new ModulePath(loadAddress);
       }
 
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Module resolutions that can be shared by the {@link ModuleLoader}s of any number of
+ * compilations, including ones running at the same time.
+ *
+ * <p>Resolved paths are keyed by the directory of the importing file and the module address, so
+ * all files in a directory share their lookups. They are only reused by loaders with the same
+ * inputs, module roots, resolver factory and path escaping; a loader with a different
+ * configuration starts over with an empty cache. Factories are compared with {@code equals}, which
+ * the factories of the built-in resolution modes implement by value.
+ *
+ * <p>Only successful resolutions are stored, so failures are still reported for every lookup. A
+ * custom {@link ModuleResolver} used with a cache must resolve an address the same way for all
+ * files in a directory, as the built-in ones do.
+ */
+public final class ModuleResolutionCache {
+
+  @Nullable private Resolutions current = null;
+
+  public ModuleResolutionCache() {}
+
+  /** Drops all stored resolutions. Loaders created afterwards start with an empty cache. */
+  public synchronized void clear() {
+    current = null;
+  }
+
+  /** Returns the number of resolutions stored for the most recent configuration. */
+  public synchronized int size() {
+    if (current == null) {
+      return 0;
+    }
+    int size = 0;
+    for (Map<String, String> resolutions : current.byDirectory.values()) {
+      size += resolutions.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the resolutions for loaders with the given {@code configuration}, replacing the stored
+   * ones if they were made with a different configuration.
+   */
+  synchronized Resolutions getResolutions(Object configuration) {
+    if (current == null || !current.configuration.equals(configuration)) {
+      current = new Resolutions(configuration);
+    }
+    return current;
+  }
+
+  /** The resolutions made by loaders with one configuration. */
+  static final class Resolutions {
+    private final Object configuration;
+    private final Map<String, Map<String, String>> byDirectory = new ConcurrentHashMap<>();
+
+    private Resolutions(Object configuration) {
+      this.configuration = configuration;
+    }
+
+    @Nullable
+    String get(String directory, String moduleAddress) {
+      Map<String, String> resolutions = byDirectory.get(directory);
+      return resolutions == null ? null : resolutions.get(moduleAddress);
+    }
+
+    void put(String directory, String moduleAddress, String loadAddress) {
+      byDirectory
+          .computeIfAbsent(directory, (String k) -> new ConcurrentHashMap<>())
+          .put(moduleAddress, loadAddress);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import com.google.javascript.jscomp.JSError;
 import com.google.javascript.jscomp.deps.ModuleLoader.ModuleResolverFactory;
 import com.google.javascript.jscomp.deps.ModuleLoader.PathEscaper;
 import java.util.Map;
+import java.util.Objects;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.annotation.Nullable;
@@ -144,6 +145,17 @@ public class NodeModuleResolver extends ModuleResolver {
       return new NodeModuleResolver(
           modulePaths, moduleRootPaths, packageJsonMainEntries, errorHandler, pathEscaper);
     }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Factory
+          && Objects.equals(packageJsonMainEntries, ((Factory) other).packageJsonMainEntries);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(packageJsonMainEntries);
+    }
   }
 
   public NodeModuleResolver(
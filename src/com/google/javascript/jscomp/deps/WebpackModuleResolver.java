@@ -25,6 +25,7 @@ import com.google.javascript.jscomp.deps.ModuleLoader.PathEscaper;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import javax.annotation.Nullable;
 
 /**
@@ -64,6 +65,16 @@ public class WebpackModuleResolver extends NodeModuleResolver {
       return new WebpackModuleResolver(
           modulePaths, moduleRootPaths, normalizedPathsById, errorHandler, pathEscaper);
     }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Factory && Objects.equals(lookupMap, ((Factory) other).lookupMap);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(lookupMap);
+    }
   }
 
   public WebpackModuleResolver(
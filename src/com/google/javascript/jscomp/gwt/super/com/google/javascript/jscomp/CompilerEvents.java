@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+
+/** GWT compatible no-op replacement for {@code CompilerEvents}. */
+final class CompilerEvents {
+
+  interface Span {
+    void end();
+  }
+
+  static final Span NO_OP_SPAN = () -> {};
+
+  static Span beginPass(AbstractCompiler compiler, String passName, Node jsRoot) {
+    return NO_OP_SPAN;
+  }
+
+  static Span beginPhase(String phaseName) {
+    return NO_OP_SPAN;
+  }
+
+  private CompilerEvents() {}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.rhino.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/** GWT compatible replacement for {@code ParallelScriptPassRunner}, which runs serially. */
+final class ParallelScriptPassRunner {
+  ParallelScriptPassRunner(int numParallelThreads) {}
+
+  void process(AbstractCompiler compiler, PassFactory factory, Node root) {
+    factory.create(compiler).process(null, root);
+  }
+
+  void forEachScript(Consumer<Node> action, Node... roots) {
+    for (Node root : roots) {
+      for (Node script = root.getFirstChild(); script != null; script = script.getNext()) {
+        action.accept(script);
+      }
+    }
+  }
+
+  <T, R> List<R> mapInParallel(List<T> inputs, Function<T, R> function) {
+    List<R> results = new ArrayList<>();
+    for (T input : inputs) {
+      results.add(function.apply(input));
+    }
+    return results;
+  }
+
+  void shutdown() {}
+}
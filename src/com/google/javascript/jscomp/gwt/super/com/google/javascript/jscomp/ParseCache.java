@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import java.nio.file.Path;
+import javax.annotation.Nullable;
+
+/** GWT compatible no-op replacement for {@code ParseCache}. There is no filesystem to cache to. */
+final class ParseCache {
+
+  ParseCache(Path directory) {}
+
+  @Nullable
+  ParserRunner.ParseResult get(SourceFile sourceFile, String code, Config config) {
+    return null;
+  }
+
+  void put(SourceFile sourceFile, String code, Config config, ParserRunner.ParseResult result) {}
+}
@@ -612,6 +612,13 @@ class IRFactory {
 
   private JSDocInfo handleJsDoc(Comment comment) {
     if (comment != null) {
+      if (isPlainDescriptionWithoutDocumentation(comment)) {
+        // Nothing but prose that would be discarded anyway: skip the token stream and parser.
+        parsedComments.add(comment);
+        JSDocInfoBuilder builder = JSDocInfo.builder();
+        builder.recordBlockDescription("");
+        return builder.build();
+      }
       JsDocInfoParser jsDocParser = createJsDocInfoParser(comment);
       parsedComments.add(comment);
       if (!handlePossibleFileOverviewJsDoc(jsDocParser)) {
@@ -621,6 +628,29 @@ class IRFactory {
     return null;
   }
 
+  /**
+   * Whether the JsDocInfoParser would only record that the comment has a (non-empty)
+   * description. Without annotations there are no types, suppressions or fileoverview
+   * details to extract, and when descriptions are not kept the parser produces the same empty
+   * JSDocInfo for every such comment.
+   */
+  private boolean isPlainDescriptionWithoutDocumentation(Comment comment) {
+    if (config.jsDocParsingMode().shouldParseDescriptions()) {
+      return false;
+    }
+    String value = comment.value;
+    if (value.indexOf('@') != -1) {
+      return false;
+    }
+    // Comments holding only whitespace and stars may be empty; leave those to the parser.
+    for (int i = 3; i < value.length(); i++) {
+      if (Character.isLetterOrDigit(value.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private JSDocInfo handleJsDoc(ParseTree node) {
     if (!shouldAttachJSDocHere(node)) {
       return null;
@@ -144,7 +144,7 @@ public final class ParserRunner {
           comments = p.getComments();
         }
       }
-      return new ParseResult(root, comments, features, p.getSourceMapURL());
+      return new ParseResult(root, comments, features, p.getSourceMapURL(), p.getLineOffsets());
     } catch (Throwable t) {
       throw new RuntimeException("Exception parsing \"" + sourceName + "\"", t);
     }
@@ -223,12 +223,27 @@ public final class ParserRunner {
     public final List<Comment> comments;
     public final FeatureSet features;
     @Nullable public final String sourceMapURL;
+    /**
+     * The offset at which each line of the source starts, where lines are separated by '\n' only,
+     * or null if the parser did not scan the whole source.
+     */
+    @Nullable public final int[] lineOffsets;
 
     public ParseResult(Node ast, List<Comment> comments, FeatureSet features, String sourceMapURL) {
+      this(ast, comments, features, sourceMapURL, null);
+    }
+
+    public ParseResult(
+        Node ast,
+        List<Comment> comments,
+        FeatureSet features,
+        String sourceMapURL,
+        @Nullable int[] lineOffsets) {
       this.ast = ast;
       this.comments = comments;
       this.features = features;
       this.sourceMapURL = sourceMapURL;
+      this.lineOffsets = lineOffsets;
     }
   }
 }
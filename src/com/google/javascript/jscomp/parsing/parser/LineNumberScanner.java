@@ -19,7 +19,9 @@ package com.google.javascript.jscomp.parsing.parser;
 import com.google.common.base.Preconditions;
 import com.google.javascript.jscomp.parsing.parser.util.SourcePosition;
 import com.google.javascript.jscomp.parsing.parser.util.SourceRange;
+import java.util.Arrays;
 import java.util.Objects;
+import javax.annotation.Nullable;
 
 /** Utility for finding line and column offsets within a source file. */
 final class LineNumberScanner {
@@ -30,6 +32,15 @@ final class LineNumberScanner {
   private int lastLine = -1;
   private int lastLineStart = -1;
   private int nextLineStart = 0;
+  // The position returned last. Adjacent tokens share the end position of one as the start
+  // position of the next, and the parser asks for the same position repeatedly while looking
+  // ahead, so reusing it avoids many short-lived allocations.
+  @Nullable private SourcePosition lastPosition;
+  // The offsets at which the lines after each '\n' start, in order, as a by-product of finding line
+  // starts. This is the line table of jscomp.SourceFile, which only breaks lines at '\n'.
+  private int[] newlineEnds = new int[16];
+  private int newlineCount = 0;
+  private boolean scannedToEnd = false;
 
   LineNumberScanner(SourceFile sourceFile) {
     this.sourceFile = sourceFile;
@@ -48,10 +59,14 @@ final class LineNumberScanner {
         "Must call rewindTo before calling getSourcePosition for an earlier line (%s < %s)",
         offset,
         lastLineStart);
+    if (lastPosition != null && lastPosition.offset == offset) {
+      return lastPosition;
+    }
     while (offset >= nextLineStart) {
       advanceLine();
     }
-    return new SourcePosition(sourceFile, offset, lastLine, offset - lastLineStart);
+    lastPosition = new SourcePosition(sourceFile, offset, lastLine, offset - lastLineStart);
+    return lastPosition;
   }
 
   SourceRange getSourceRange(int startOffset, int endOffset) {
@@ -82,10 +97,39 @@ final class LineNumberScanner {
           index++;
         }
         nextLineStart = index + 1;
+        if (contents.charAt(index) == '\n') {
+          recordNewlineEnd(nextLineStart);
+        }
         return;
       }
     }
     nextLineStart = Integer.MAX_VALUE;
+    scannedToEnd = true;
+  }
+
+  private void recordNewlineEnd(int offset) {
+    // Lines seen before a rewind are scanned again, but only recorded once.
+    if (newlineCount > 0 && offset <= newlineEnds[newlineCount - 1]) {
+      return;
+    }
+    if (newlineCount == newlineEnds.length) {
+      newlineEnds = Arrays.copyOf(newlineEnds, newlineCount * 2);
+    }
+    newlineEnds[newlineCount++] = offset;
+  }
+
+  /**
+   * Returns the offset at which each line starts, where lines are separated by '\n' only, or null
+   * if the scanner has not seen the whole file.
+   */
+  @Nullable
+  int[] getNewlineSeparatedLineOffsets() {
+    if (!scannedToEnd) {
+      return null;
+    }
+    int[] lineOffsets = new int[newlineCount + 1];
+    System.arraycopy(newlineEnds, 0, lineOffsets, 1, newlineCount);
+    return lineOffsets;
   }
 
   private static boolean isLineTerminator(char ch) {
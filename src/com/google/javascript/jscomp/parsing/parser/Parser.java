@@ -269,6 +269,12 @@ public class Parser {
     return sourceMapURL;
   }
 
+  /** @see Scanner#getLineOffsets */
+  @Nullable
+  public int[] getLineOffsets() {
+    return scanner.getLineOffsets();
+  }
+
   /** Returns true if the string value should be treated as a keyword in the current context. */
   private boolean isKeyword(String value) {
     return Keywords.isKeyword(value);
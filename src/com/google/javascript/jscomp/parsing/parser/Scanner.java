@@ -39,6 +39,10 @@ public class Scanner {
   private final String contents;
   private final int contentsLength;
   private final ArrayList<Token> currentTokens = new ArrayList<>();
+  // Identifier and keyword names scanned so far, in an open addressing hash table keyed by their
+  // characters. A name that occurs again is found without allocating a new String for it.
+  private String[] names = new String[256];
+  private int nameCount = 0;
   private int index;
   private final CommentRecorder commentRecorder;
   private int typeParameterLevel;
@@ -75,6 +79,15 @@ public class Scanner {
     return source;
   }
 
+  /**
+   * Returns the offset at which each line of the source starts, where lines are separated by '\n'
+   * only, or null if the source has not been scanned to its end.
+   */
+  @Nullable
+  public int[] getLineOffsets() {
+    return lineNumberScanner.getNewlineSeparatedLineOffsets();
+  }
+
   public int getOffset() {
     return currentTokens.isEmpty() ? index : peekToken().location.start.offset;
   }
@@ -787,7 +800,7 @@ public class Scanner {
       ch = peekChar();
     }
 
-    String value = contents.substring(valueStartIndex, index);
+    String value = getName(valueStartIndex, index);
 
     // Process unicode escapes.
     if (containsUnicodeEscape) {
@@ -818,6 +831,50 @@ public class Scanner {
     return new IdentifierToken(getTokenRange(beginToken), value);
   }
 
+  /** Returns the characters of contents from {@code start} to {@code end} as a shared String. */
+  private String getName(int start, int end) {
+    int length = end - start;
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + contents.charAt(i);
+    }
+    int mask = names.length - 1;
+    int slot = spread(hash) & mask;
+    for (String name = names[slot]; name != null; name = names[slot]) {
+      if (name.length() == length && contents.regionMatches(start, name, 0, length)) {
+        return name;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    String name = contents.substring(start, end);
+    names[slot] = name;
+    if (++nameCount * 2 > names.length) {
+      growNames();
+    }
+    return name;
+  }
+
+  private void growNames() {
+    String[] oldNames = names;
+    names = new String[oldNames.length * 2];
+    int mask = names.length - 1;
+    for (String name : oldNames) {
+      if (name != null) {
+        // The hash computed in getName is the same as String#hashCode.
+        int slot = spread(name.hashCode()) & mask;
+        while (names[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+      }
+    }
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
   /**
    * Converts unicode escapes in the given string to the equivalent unicode character. If there are
    * no escapes, returns the input unchanged. If there is an invalid escape sequence, returns null.
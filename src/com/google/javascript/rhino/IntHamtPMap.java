@@ -0,0 +1,594 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package com.google.javascript.rhino;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import javax.annotation.Nullable;
+
+/**
+ * A version of {@link HamtPMap} for int keys, with the same persistent semantics and structural
+ * sharing, that stores its keys unboxed.
+ *
+ * <p>Keys are hashed by reversing their bits, which is a bijection, so two keys collide only when
+ * they are equal. That removes the calls to {@code hashCode} and {@code equals}, and the pivoting
+ * that {@link HamtPMap} needs to handle collisions. As in {@link HamtPMap}, the entry with the
+ * smallest hash is always at the root of the tree, and null values are not allowed.
+ */
+public final class IntHamtPMap<V> implements Serializable {
+
+  /** Number of bits of fan-out at each level. See {@link HamtPMap} for the trade-offs. */
+  private static final int BITS = 4;
+
+  /** Number of bits to shift off to get the most significant BITS number of bits. */
+  private static final int BITS_SHIFT = 32 - BITS;
+
+  /** Key of the entry in this node. Meaningless if there is no entry. */
+  private final int key;
+
+  /** Hash of the key, left-shifted by BITS*depth. */
+  private final int hash;
+
+  /** Non-null value (exceptions: (1) empty map, (2) root vacated during a reconcile). */
+  private final V value;
+
+  /** Bit mask indicating the children that are present (bitCount(mask) == children.length). */
+  private final int mask;
+
+  /** Non-null array of children. Elements are never reassigned. */
+  private final IntHamtPMap<V>[] children;
+
+  private static final IntHamtPMap<?>[] EMPTY_CHILDREN = new IntHamtPMap<?>[0];
+  private static final IntHamtPMap<?> EMPTY = new IntHamtPMap<>(0, 0, null, 0, emptyChildren());
+
+  private IntHamtPMap(int key, int hash, V value, int mask, IntHamtPMap<V>[] children) {
+    this.key = key;
+    this.hash = hash;
+    this.value = value;
+    this.mask = mask;
+    this.children = children;
+
+    this.checkInvariants();
+  }
+
+  private void checkInvariants() {
+    checkState(Integer.bitCount(this.mask) == this.children.length);
+    for (IntHamtPMap<?> child : this.children) {
+      checkNotNull(child);
+    }
+  }
+
+  /** Returns an empty map. */
+  @SuppressWarnings("unchecked") // Empty immutable collection is safe to cast.
+  public static <V> IntHamtPMap<V> empty() {
+    return (IntHamtPMap<V>) EMPTY;
+  }
+
+  /** Returns an empty array of child maps. */
+  @SuppressWarnings("unchecked") // Empty array is safe to cast.
+  private static <V> IntHamtPMap<V>[] emptyChildren() {
+    return (IntHamtPMap<V>[]) EMPTY_CHILDREN;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder().append("{");
+    if (!isEmpty()) {
+      appendTo(sb);
+    }
+    return sb.append("}").toString();
+  }
+
+  /** Appends this map's contents to a string builder. */
+  private void appendTo(StringBuilder sb) {
+    if (sb.length() > 1) {
+      sb.append(", ");
+    }
+    sb.append(key).append(": ").append(value);
+    for (IntHamtPMap<V> child : children) {
+      child.appendTo(sb);
+    }
+  }
+
+  /** Returns whether this map is empty. */
+  public boolean isEmpty() {
+    return value == null;
+  }
+
+  /** Returns an iterable for the values in this map. */
+  public Iterable<V> values() {
+    if (isEmpty()) {
+      return Collections.<V>emptyList();
+    }
+    return () -> new Iter<>(this, map -> map.value);
+  }
+
+  /** Returns an iterable for the keys in this map. */
+  public Iterable<Integer> keys() {
+    if (isEmpty()) {
+      return Collections.emptyList();
+    }
+    return () -> new Iter<>(this, map -> map.key);
+  }
+
+  /** Retrieves the given key from the map, or returns null if it is not present. */
+  @Nullable
+  public V get(int key) {
+    return !isEmpty() ? get(key, hash(key)) : null;
+  }
+
+  /** Internal recursive implementation of get(int). */
+  private V get(int key, int hash) {
+    if (key == this.key) {
+      return this.value;
+    }
+    int bucket = bucket(hash);
+    int bucketMask = 1 << bucket;
+    return (mask & bucketMask) != 0 ? children[index(bucketMask)].get(key, shift(hash)) : null;
+  }
+
+  /**
+   * Returns a new map with the given key-value pair added. If the value is already present, then
+   * this same map will be returned.
+   */
+  public IntHamtPMap<V> plus(int key, V value) {
+    checkNotNull(value);
+
+    return !isEmpty()
+        ? plus(key, hash(key), value)
+        : new IntHamtPMap<>(key, hash(key), value, 0, emptyChildren());
+  }
+
+  /** Internal recursive implementation of plus(int, V). */
+  private IntHamtPMap<V> plus(int key, int hash, V value) {
+    if (key == this.key) {
+      return value.equals(this.value)
+          ? this
+          : new IntHamtPMap<>(key, hash, value, mask, children);
+    }
+    if (compareUnsigned(hash, this.hash) < 0) {
+      return replaceRoot(key, hash, value);
+    }
+    int bucket = bucket(hash);
+    hash = shift(hash);
+    int bucketMask = 1 << bucket;
+    int index = index(bucketMask);
+    if ((mask & bucketMask) != 0) {
+      // already a child, so overwrite
+      IntHamtPMap<V> child = children[index];
+      IntHamtPMap<V> newChild = child.plus(key, hash, value);
+      return child == newChild ? this : withChildren(mask, replaceChild(children, index, newChild));
+    } else {
+      // insert at index
+      IntHamtPMap<V> newChild = new IntHamtPMap<>(key, hash, value, 0, emptyChildren());
+      return withChildren(mask | bucketMask, insertChild(children, index, newChild));
+    }
+  }
+
+  private IntHamtPMap<V> replaceRoot(int key, int hash, V value) {
+    int bucket = bucket(this.hash);
+    int leafHash = shift(this.hash);
+    int bucketMask = 1 << bucket;
+    int index = index(bucketMask);
+    IntHamtPMap<V>[] newChildren;
+    if ((mask & bucketMask) != 0) {
+      newChildren =
+          replaceChild(children, index, children[index].plus(this.key, leafHash, this.value));
+    } else {
+      IntHamtPMap<V> newChild =
+          new IntHamtPMap<>(this.key, leafHash, this.value, 0, emptyChildren());
+      newChildren = insertChild(children, index, newChild);
+    }
+    return new IntHamtPMap<>(key, hash, value, mask | bucketMask, newChildren);
+  }
+
+  /**
+   * Returns a new map with the given key removed. If the key was not present in the first place,
+   * then this same map will be returned.
+   */
+  public IntHamtPMap<V> minus(int key) {
+    return !isEmpty() ? minus(key, hash(key)) : this;
+  }
+
+  /** Internal recursive implementation of minus(int). */
+  private IntHamtPMap<V> minus(int key, int hash) {
+    if (key == this.key) {
+      IntHamtPMap<V> result = deleteRoot(mask, children);
+      return result != null ? result : empty();
+    }
+    int bucket = bucket(hash);
+    int bucketMask = 1 << bucket;
+    if ((mask & bucketMask) == 0) {
+      // not present, stop looking
+      return this;
+    }
+    hash = shift(hash);
+    int index = index(bucketMask);
+    IntHamtPMap<V> child = children[index];
+    IntHamtPMap<V> newChild = child.minus(key, hash);
+    if (newChild == child) {
+      return this;
+    } else if (newChild == EMPTY) {
+      return withChildren(mask & ~bucketMask, deleteChild(children, index));
+    } else {
+      return withChildren(mask, replaceChild(children, index, newChild));
+    }
+  }
+
+  /**
+   * Performs a reconcile operation to merge {@code this} and {@code that}, with the same semantics
+   * as {@link PMap#reconcile}.
+   */
+  public IntHamtPMap<V> reconcile(IntHamtPMap<V> that, Reconciler<V> joiner) {
+    IntHamtPMap<V> result =
+        reconcile(
+            !this.isEmpty() ? this : null,
+            !that.isEmpty() ? that : null,
+            (k, v1, v2) -> checkNotNull(joiner.merge(k, v1, v2)));
+    return result != null ? result : empty();
+  }
+
+  /** Internal recursive implementation of reconcile(IntHamtPMap, Reconciler), without empties. */
+  private static <V> IntHamtPMap<V> reconcile(
+      @Nullable IntHamtPMap<V> t1, @Nullable IntHamtPMap<V> t2, Reconciler<V> joiner) {
+    if (t1 == t2) {
+      return t1;
+    } else if (t1 == null || t2 == null) {
+      return reconcileOneSided(t1 != null ? t1 : t2, t1 == null, joiner);
+    }
+
+    // Try as hard as possible to return input trees exactly.
+    boolean sameChildrenAs1 = true;
+    boolean sameChildrenAs2 = true;
+
+    // If the hashes are different, we need to keep the lower one at the top. Equal hashes mean
+    // equal keys, so there is no collision to handle.
+    int hashCmp = compareUnsigned(t1.hash, t2.hash);
+    int key = t1.key;
+    int hash = t1.hash;
+    if (hashCmp < 0) {
+      // t1.key is missing from t2
+      t2 = t2.vacateRoot();
+      sameChildrenAs2 = false;
+    } else if (hashCmp > 0) {
+      // t2.key is missing from t1
+      t1 = t1.vacateRoot();
+      sameChildrenAs1 = false;
+      key = t2.key;
+      hash = t2.hash;
+    }
+    // Note: one or the other (but not both) tree may have a null value at root.
+
+    V newValue =
+        Objects.equals(t1.value, t2.value) ? t1.value : joiner.merge(key, t1.value, t2.value);
+    int newMask = t1.mask | t2.mask;
+    sameChildrenAs1 &= (newMask == t1.mask);
+    sameChildrenAs2 &= (newMask == t2.mask);
+
+    @SuppressWarnings("unchecked") // only used internally.
+    IntHamtPMap<V>[] newChildren =
+        newMask != 0
+            ? (IntHamtPMap<V>[]) new IntHamtPMap<?>[Integer.bitCount(newMask)]
+            : emptyChildren();
+    int mask = newMask;
+    int index = 0;
+    while (mask != 0) {
+      int childBit = Integer.lowestOneBit(mask);
+      mask &= ~childBit;
+      IntHamtPMap<V> child1 = t1.getChild(childBit);
+      IntHamtPMap<V> child2 = t2.getChild(childBit);
+      newChildren[index] = reconcile(child1, child2, joiner);
+      sameChildrenAs1 &= (newChildren[index] == child1);
+      sameChildrenAs2 &= (newChildren[index] == child2);
+      if (newChildren[index] != null) {
+        index++;
+      } else {
+        newMask &= ~childBit;
+      }
+    }
+    if (sameChildrenAs1 && t1.value.equals(newValue)) {
+      return t1;
+    } else if (sameChildrenAs2 && t2.value.equals(newValue)) {
+      return t2;
+    } else if (newValue == null) {
+      return deleteRoot(newMask, newChildren);
+    }
+    return new IntHamtPMap<>(key, hash, newValue, newMask, newChildren);
+  }
+
+  /**
+   * Reconciles a subtree that is only present on one side, returning it unchanged when the joiner
+   * keeps all of its values. The joiner never returns null here, so no entries are removed.
+   */
+  private static <V> IntHamtPMap<V> reconcileOneSided(
+      IntHamtPMap<V> t, boolean isThat, Reconciler<V> joiner) {
+    V newValue = isThat ? joiner.merge(t.key, null, t.value) : joiner.merge(t.key, t.value, null);
+    IntHamtPMap<V>[] newChildren = null;
+    for (int i = 0; i < t.children.length; i++) {
+      IntHamtPMap<V> newChild = reconcileOneSided(t.children[i], isThat, joiner);
+      if (newChild != t.children[i]) {
+        if (newChildren == null) {
+          newChildren = Arrays.copyOf(t.children, t.children.length);
+        }
+        newChildren[i] = newChild;
+      }
+    }
+    if (newChildren == null && t.value.equals(newValue)) {
+      return t;
+    }
+    return new IntHamtPMap<>(
+        t.key, t.hash, newValue, t.mask, newChildren != null ? newChildren : t.children);
+  }
+
+  /**
+   * Checks equality recursively based on the given equivalence, with the same semantics as {@link
+   * PMap#equivalent}.
+   */
+  public boolean equivalent(IntHamtPMap<V> that, BiPredicate<V, V> equivalence) {
+    return equivalent(
+        !this.isEmpty() ? this : null, !that.isEmpty() ? that : null, equivalence);
+  }
+
+  /** Internal recursive implementation of equivalent(IntHamtPMap, BiPredicate). */
+  private static <V> boolean equivalent(
+      @Nullable IntHamtPMap<V> t1, @Nullable IntHamtPMap<V> t2, BiPredicate<V, V> equivalence) {
+    if (t1 == t2) {
+      return true;
+    } else if (t1 == null || t2 == null) {
+      return false;
+    }
+
+    if (t1.hash != t2.hash) {
+      // Due to our invariant, we can safely conclude that there's a discrepancy in the
+      // keys without any extra work.
+      return false;
+    }
+
+    if (!equivalence.test(t1.value, t2.value)) {
+      return false;
+    }
+    int mask = t1.mask | t2.mask;
+    while (mask != 0) {
+      int childBit = Integer.lowestOneBit(mask);
+      mask &= ~childBit;
+      if (!equivalent(t1.getChild(childBit), t2.getChild(childBit), equivalence)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the index into the 'children' array for the given bit, which must have exactly one bit
+   * set in its binary representation (i.e. must be a power of two).
+   */
+  private int index(int bit) {
+    return Integer.bitCount(mask & (bit - 1));
+  }
+
+  /**
+   * Returns the child for the given bit, which must have exactly one bit set. Returns null if there
+   * is no child for that bit.
+   */
+  private IntHamtPMap<V> getChild(int bit) {
+    return (mask & bit) != 0 ? children[index(bit)] : null;
+  }
+
+  /**
+   * Perform the hash operation. Small keys only vary in their least significant bits, but we use
+   * the most significant bits for bucketing, so reverse the bits.
+   */
+  private static int hash(int key) {
+    return Integer.reverse(key);
+  }
+
+  /** Return the current bucket index from the hash. */
+  private static int bucket(int hash) {
+    return hash >>> BITS_SHIFT;
+  }
+
+  /** Return a new hash with the next bucket number shifted off. */
+  private static int shift(int hash) {
+    return hash << BITS;
+  }
+
+  /** Unshift the bucket number back onto a hash. */
+  private static int unshift(int hash, int bucket) {
+    return (hash >>> BITS) | (bucket << BITS_SHIFT);
+  }
+
+  /** Compare two unsigned integers. */
+  private static int compareUnsigned(int left, int right) {
+    // NOTE: Emulated as in HamtPMap, by shifting the sign bit away, with a fallback second compare
+    //       only if needed.
+    int diff = (left >>> 2) - (right >>> 2);
+    return diff != 0 ? diff : (left & 3) - (right & 3);
+  }
+
+  /** Moves the root into the appropriate child. */
+  private IntHamtPMap<V> vacateRoot() {
+    int bucket = bucket(this.hash);
+    int bucketMask = 1 << bucket;
+    int index = index(bucketMask);
+    if ((mask & bucketMask) != 0) {
+      IntHamtPMap<V> newChild = children[index].plus(this.key, shift(this.hash), this.value);
+      return new IntHamtPMap<>(0, 0, null, mask, replaceChild(children, index, newChild));
+    }
+    IntHamtPMap<V> newChild =
+        new IntHamtPMap<>(this.key, shift(this.hash), this.value, 0, emptyChildren());
+    return new IntHamtPMap<>(0, 0, null, mask | bucketMask, insertChild(children, index, newChild));
+  }
+
+  /** Returns a copy of this node with a different array of children. */
+  private IntHamtPMap<V> withChildren(int mask, IntHamtPMap<V>[] children) {
+    return mask == this.mask && children == this.children
+        ? this
+        : new IntHamtPMap<>(key, hash, value, mask, children);
+  }
+
+  /**
+   * Returns a new map with the elements from children. One element is removed from one of the
+   * children and promoted to a root node. If there are no children, returns null.
+   */
+  private static <V> IntHamtPMap<V> deleteRoot(int mask, IntHamtPMap<V>[] children) {
+    if (mask == 0) {
+      return null;
+    }
+    IntHamtPMap<V> child = children[0];
+    int hashBits = Integer.numberOfTrailingZeros(mask);
+    int newHash = unshift(child.hash, hashBits);
+    IntHamtPMap<V> newChild = deleteRoot(child.mask, child.children);
+    if (newChild == null) {
+      int newMask = mask & ~Integer.lowestOneBit(mask);
+      return new IntHamtPMap<>(child.key, newHash, child.value, newMask, deleteChild(children, 0));
+    } else {
+      return new IntHamtPMap<>(
+          child.key, newHash, child.value, mask, replaceChild(children, 0, newChild));
+    }
+  }
+
+  /** Returns a new array of children with an additional child inserted at the given index. */
+  private static <V> IntHamtPMap<V>[] insertChild(
+      IntHamtPMap<V>[] children, int index, IntHamtPMap<V> child) {
+    @SuppressWarnings("unchecked") // only used internally.
+    IntHamtPMap<V>[] newChildren = (IntHamtPMap<V>[]) new IntHamtPMap<?>[children.length + 1];
+    newChildren[index] = child;
+    System.arraycopy(children, 0, newChildren, 0, index);
+    System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+    return newChildren;
+  }
+
+  /** Returns a new array of children with the child at the given index replaced. */
+  private static <V> IntHamtPMap<V>[] replaceChild(
+      IntHamtPMap<V>[] children, int index, IntHamtPMap<V> child) {
+    IntHamtPMap<V>[] newChildren = Arrays.copyOf(children, children.length);
+    newChildren[index] = child;
+    return newChildren;
+  }
+
+  /** Returns a new array of children with the child at the given index deleted. */
+  private static <V> IntHamtPMap<V>[] deleteChild(IntHamtPMap<V>[] children, int index) {
+    if (children.length == 1) {
+      // Note: index should always be zero.
+      return emptyChildren();
+    }
+    @SuppressWarnings("unchecked") // only used internally.
+    IntHamtPMap<V>[] newChildren = (IntHamtPMap<V>[]) new IntHamtPMap<?>[children.length - 1];
+    System.arraycopy(children, 0, newChildren, 0, index);
+    System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+    return newChildren;
+  }
+
+  /** Iterates sequentially over a tree. */
+  private static class Iter<V, O> implements Iterator<O> {
+    final Deque<IntHamtPMap<V>> queue = new ArrayDeque<>();
+    final Function<IntHamtPMap<V>, O> transformer;
+
+    Iter(IntHamtPMap<V> map, Function<IntHamtPMap<V>, O> transformer) {
+      this.transformer = transformer;
+      if (!map.isEmpty()) {
+        queue.add(map);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public O next() {
+      IntHamtPMap<V> top = queue.removeFirst();
+      for (int i = top.children.length - 1; i >= 0; i--) {
+        queue.add(top.children[i]);
+      }
+      return transformer.apply(top);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** See {@link PMap#reconcile}. */
+  @FunctionalInterface
+  public interface Reconciler<V> {
+    V merge(int key, @Nullable V thisVal, @Nullable V thatVal);
+  }
+
+  /** Throws an assertion error if the map invariant is violated. */
+  @VisibleForTesting
+  IntHamtPMap<V> assertCorrectStructure() {
+    if (isEmpty()) {
+      return this;
+    }
+    int hash = hash(key);
+    for (int i = 0; i < children.length; i++) {
+      int childHash = hash(children[i].key);
+      if (compareUnsigned(childHash, hash) < 0) {
+        throw new AssertionError(
+            "Invalid map has decreasing hash "
+                + children[i].key
+                + "("
+                + Integer.toHexString(childHash)
+                + ") beneath "
+                + key
+                + "("
+                + Integer.toHexString(hash)
+                + ": "
+                + this);
+      }
+      children[i].assertCorrectStructure();
+    }
+    return this;
+  }
+}
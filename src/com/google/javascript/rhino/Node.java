@@ -78,6 +78,7 @@ public class Node implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  // There can be at most 64 props, since each one has a bit in booleanProps.
   private enum Prop {
     // Is this Node within parentheses
     IS_PARENTHESIZED,
@@ -216,6 +217,10 @@ public class Node implements Serializable {
     TRAILING_COMMA,
   }
 
+  static {
+    checkState(Prop.values().length <= Long.SIZE, "Too many props to fit in booleanProps");
+  }
+
   /**
    * Get the NonJSDoc comment string attached to this node.
    *
@@ -569,80 +574,6 @@ public class Node implements Serializable {
     }
   }
 
-  private abstract static class PropListItem implements Serializable {
-    final @Nullable PropListItem next;
-    final byte propType;
-
-    PropListItem(byte propType, @Nullable PropListItem next) {
-      this.propType = propType;
-      this.next = next;
-    }
-
-    public abstract int getIntValue();
-    public abstract Object getObjectValue();
-    public abstract PropListItem chain(@Nullable PropListItem next);
-  }
-
-  // A base class for Object storing props
-  private static final class ObjectPropListItem extends PropListItem {
-    private final Object objectValue;
-
-    ObjectPropListItem(byte propType, Object objectValue, @Nullable PropListItem next) {
-      super(propType, next);
-      this.objectValue = objectValue;
-    }
-
-    @Override
-    public int getIntValue() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public Object getObjectValue() {
-      return objectValue;
-    }
-
-    @Override
-    public String toString() {
-      return String.valueOf(objectValue);
-    }
-
-    @Override
-    public PropListItem chain(@Nullable PropListItem next) {
-      return new ObjectPropListItem(propType, objectValue, next);
-    }
-  }
-
-  // A base class for int storing props
-  private static final class IntPropListItem extends PropListItem {
-    final int intValue;
-
-    IntPropListItem(byte propType, int intValue, @Nullable PropListItem next) {
-      super(propType, next);
-      this.intValue = intValue;
-    }
-
-    @Override
-    public int getIntValue() {
-      return intValue;
-    }
-
-    @Override
-    public Object getObjectValue() {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public String toString() {
-      return String.valueOf(intValue);
-    }
-
-    @Override
-    public PropListItem chain(@Nullable PropListItem next) {
-      return new IntPropListItem(propType, intValue, next);
-    }
-  }
-
   public Node(Token nodeType) {
     token = nodeType;
     parent = null;
@@ -1113,15 +1044,21 @@ public class Node implements Serializable {
     replaceChild(target, newChild);
   }
 
-  @VisibleForTesting
-  @Nullable
-  final PropListItem lookupProperty(Prop prop) {
-    byte propType = (byte) prop.ordinal();
-    PropListItem x = propListHead;
-    while (x != null && propType != x.propType) {
-      x = x.next;
+  /** Returns the index in {@link #propValues} of the value of {@code prop}, or -1. */
+  private int indexOfPropValue(Prop prop) {
+    Object[] values = propValues;
+    if (values != null) {
+      for (int i = 0; i < values.length; i += 2) {
+        if (values[i] == prop) {
+          return i + 1;
+        }
+      }
     }
-    return x;
+    return -1;
+  }
+
+  private static long propBit(Prop prop) {
+    return 1L << prop.ordinal();
   }
 
   /**
@@ -1132,54 +1069,70 @@ public class Node implements Serializable {
    * @return this node.
    */
   public final Node clonePropsFrom(Node other) {
-    checkState(this.propListHead == null, "Node has existing properties.");
-    this.propListHead = other.propListHead;
+    checkState(!this.hasProps(), "Node has existing properties.");
+    this.booleanProps = other.booleanProps;
+    this.propValues = other.propValues;
     return this;
   }
 
   public final boolean hasProps() {
-    return propListHead != null;
+    return booleanProps != 0 || propValues != null;
   }
 
   public final void removeProp(Prop propType) {
-    PropListItem result = removeProp(propListHead, (byte) propType.ordinal());
-    if (result != propListHead) {
-      propListHead = result;
+    booleanProps &= ~propBit(propType);
+    removePropValue(propType);
+  }
+
+  private void removePropValue(Prop propType) {
+    int index = indexOfPropValue(propType);
+    if (index == -1) {
+      return;
+    }
+    Object[] values = propValues;
+    if (values.length == 2) {
+      propValues = null;
+      return;
     }
+    // The array may be shared with other nodes, so it is replaced rather than modified.
+    Object[] newValues = new Object[values.length - 2];
+    int keyIndex = index - 1;
+    System.arraycopy(values, 0, newValues, 0, keyIndex);
+    System.arraycopy(values, keyIndex + 2, newValues, keyIndex, values.length - keyIndex - 2);
+    propValues = newValues;
   }
 
-  /**
-   * @param item The item to inspect
-   * @param propType The property to look for
-   * @return The replacement list if the property was removed, or 'item' otherwise.
-   */
-  @Nullable
-  private final PropListItem removeProp(@Nullable PropListItem item, byte propType) {
-    if (item == null) {
-      return null;
-    } else if (item.propType == propType) {
-      return item.next;
+  private void putPropValue(Prop propType, Object value) {
+    Object[] values = propValues;
+    if (values == null) {
+      propValues = new Object[] {propType, value};
+      return;
+    }
+    int index = indexOfPropValue(propType);
+    if (index != -1 && values[index] == value) {
+      return;
+    }
+    // The array may be shared with other nodes, so it is replaced rather than modified.
+    Object[] newValues;
+    if (index == -1) {
+      newValues = Arrays.copyOf(values, values.length + 2);
+      newValues[values.length] = propType;
+      newValues[values.length + 1] = value;
     } else {
-      PropListItem result = removeProp(item.next, propType);
-      if (result != item.next) {
-        return item.chain(result);
-      } else {
-        return item;
-      }
+      newValues = Arrays.copyOf(values, values.length);
+      newValues[index] = value;
     }
+    propValues = newValues;
   }
 
   @Nullable
   public final Object getProp(Prop propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
-      return null;
-    }
-    return item.getObjectValue();
+    int index = indexOfPropValue(propType);
+    return index == -1 ? null : propValues[index];
   }
 
   public final boolean getBooleanProp(Prop propType) {
-    return getIntProp(propType) != 0;
+    return (booleanProps & propBit(propType)) != 0 || getIntProp(propType) != 0;
   }
 
   /**
@@ -1187,25 +1140,37 @@ public class Node implements Serializable {
    * is not defined.
    */
   public final int getIntProp(Prop propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
-      return 0;
+    if ((booleanProps & propBit(propType)) != 0) {
+      return 1;
     }
-    return item.getIntValue();
+    int index = indexOfPropValue(propType);
+    return index == -1 ? 0 : intPropValue(propType, propValues[index]);
   }
 
   public final int getExistingIntProp(Prop propType) {
-    PropListItem item = lookupProperty(propType);
-    if (item == null) {
+    if ((booleanProps & propBit(propType)) != 0) {
+      return 1;
+    }
+    int index = indexOfPropValue(propType);
+    if (index == -1) {
       throw new IllegalStateException("missing prop: " + propType);
     }
-    return item.getIntValue();
+    return intPropValue(propType, propValues[index]);
+  }
+
+  private static int intPropValue(Prop propType, Object value) {
+    if (!(value instanceof Integer)) {
+      throw new UnsupportedOperationException("not an int prop: " + propType);
+    }
+    return (Integer) value;
   }
 
   public final void putProp(Prop propType, @Nullable Object value) {
-    removeProp(propType);
-    if (value != null) {
-      propListHead = createProp((byte) propType.ordinal(), value, propListHead);
+    booleanProps &= ~propBit(propType);
+    if (value == null) {
+      removePropValue(propType);
+    } else {
+      putPropValue(propType, value);
     }
   }
 
@@ -1214,9 +1179,17 @@ public class Node implements Serializable {
   }
 
   public final void putIntProp(Prop propType, int value) {
-    removeProp(propType);
-    if (value != 0) {
-      propListHead = createProp((byte) propType.ordinal(), value, propListHead);
+    if (value == 1) {
+      // Boolean props, the vast majority, are set without allocating.
+      removePropValue(propType);
+      booleanProps |= propBit(propType);
+    } else {
+      booleanProps &= ~propBit(propType);
+      if (value == 0) {
+        removePropValue(propType);
+      } else {
+        putPropValue(propType, value);
+      }
     }
   }
 
@@ -1237,14 +1210,6 @@ public class Node implements Serializable {
     return (TypeDeclarationNode) getProp(Prop.DECLARED_TYPE_EXPR);
   }
 
-  final PropListItem createProp(byte propType, Object value, @Nullable PropListItem next) {
-    return new ObjectPropListItem(propType, value, next);
-  }
-
-  final PropListItem createProp(byte propType, int value, @Nullable PropListItem next) {
-    return new IntPropListItem(propType, value, next);
-  }
-
   /**
    * Sets the type of this node before casting.
    */
@@ -1278,16 +1243,18 @@ public class Node implements Serializable {
   }
 
   // Gets all the property types, in sorted order.
-  private byte[] getSortedPropTypes() {
+  private Prop[] getSortedPropTypes() {
+    Object[] values = propValues;
+    int valueCount = values == null ? 0 : values.length / 2;
+    Prop[] keys = new Prop[Long.bitCount(booleanProps) + valueCount];
     int count = 0;
-    for (PropListItem x = propListHead; x != null; x = x.next) {
-      count++;
+    for (Prop prop : Prop.values()) {
+      if ((booleanProps & propBit(prop)) != 0) {
+        keys[count++] = prop;
+      }
     }
-
-    byte[] keys = new byte[count];
-    for (PropListItem x = propListHead; x != null; x = x.next) {
-      count--;
-      keys[count] = x.propType;
+    for (int i = 0; i < valueCount; i++) {
+      keys[count++] = (Prop) values[2 * i];
     }
 
     Arrays.sort(keys);
@@ -1436,14 +1403,11 @@ public class Node implements Serializable {
     }
 
     if (printAnnotations) {
-      byte[] keys = getSortedPropTypes();
-      for (int i = 0; i < keys.length; i++) {
-        Prop type = Prop.values()[keys[i]];
-        PropListItem x = lookupProperty(type);
+      for (Prop type : getSortedPropTypes()) {
         sb.append(" [");
         sb.append(propToString(type));
         sb.append(": ");
-        sb.append(x);
+        sb.append((booleanProps & propBit(type)) != 0 ? 1 : getProp(type));
         sb.append(']');
       }
     }
@@ -1495,11 +1459,20 @@ public class Node implements Serializable {
   // We get the last child as first.previous. But last.next is null, not first.
 
   /**
-   * Linked list of properties. Since vast majority of nodes would have no more than 2 properties,
-   * linked list saves memory and provides fast lookup. If this does not holds, propListHead can be
-   * replaced by UintMap.
+   * Properties whose int value is 1, which includes every boolean property that is set, as a bitset
+   * indexed by {@link Prop#ordinal}. Keeping these out of {@link #propValues} means that setting a
+   * flag never allocates.
    */
-  @Nullable private transient PropListItem propListHead;
+  private transient long booleanProps;
+
+  /**
+   * All other properties as alternating {@link Prop} keys and values, with int values boxed. Most
+   * nodes have at most a couple of these, so a linear scan is as fast as a map.
+   *
+   * <p>The array is never modified once assigned, so it can be shared between nodes. In particular
+   * all nodes of a parsed file share a single array holding their SOURCE_FILE.
+   */
+  @Nullable private transient Object[] propValues;
 
   /**
    * COLUMN_BITS represents how many of the lower-order bits of
@@ -1544,20 +1517,16 @@ public class Node implements Serializable {
   // Source position management
 
   public final void setStaticSourceFileFrom(Node other) {
-    // Make sure source file prop nodes are not duplicated.
-    if (other.propListHead != null
-        && (this.propListHead == null
-            || (this.propListHead.propType == Prop.SOURCE_FILE.ordinal()
-               && this.propListHead.next == null))) {
-      // Either the node has only Prop.SOURCE_FILE as a property or has not properties.
-      PropListItem tail = other.propListHead;
-      while (tail.next != null) {
-        tail = tail.next;
-      }
-      if (tail.propType == Prop.SOURCE_FILE.ordinal()) {
-        propListHead = tail;
-        return;
-      }
+    // Make sure source file prop arrays are not duplicated.
+    Object[] otherValues = other.propValues;
+    if (otherValues != null
+        && otherValues.length == 2
+        && otherValues[0] == Prop.SOURCE_FILE
+        && (this.propValues == null
+            || (this.propValues.length == 2 && this.propValues[0] == Prop.SOURCE_FILE))) {
+      // Both nodes have at most Prop.SOURCE_FILE as a non-boolean property.
+      propValues = otherValues;
+      return;
     }
     setStaticSourceFile(other.getStaticSourceFile());
   }
@@ -1826,13 +1795,10 @@ public class Node implements Serializable {
   // ==========================================================================
   // Accessors
 
+  @VisibleForTesting
   @Nullable
-  final PropListItem getPropListHeadForTesting() {
-    return propListHead;
-  }
-
-  final void setPropListHead(@Nullable PropListItem propListHead) {
-    this.propListHead = propListHead;
+  final Object[] getPropValuesForTesting() {
+    return propValues;
   }
 
   @Nullable
@@ -2474,7 +2440,9 @@ public class Node implements Serializable {
     dst.setSourceEncodedPosition(this.sourcePosition);
     dst.setLength(this.getLength());
     dst.setJSType(this.jstype);
-    dst.setPropListHead(this.propListHead);
+    Node dstNode = dst;
+    dstNode.booleanProps = this.booleanProps;
+    dstNode.propValues = this.propValues;
 
     // TODO(johnlenz): Remove this once JSTypeExpression are immutable
     if (cloneTypeExprs) {
@@ -2519,13 +2487,35 @@ public class Node implements Serializable {
     return result;
   }
 
+  /**
+   * Whether {@code values} holds nothing but the source info props that {@link #useSourceInfoFrom}
+   * copies. Nodes created by transpilation and other rewriting passes copy their source info from
+   * an original node, so sharing the original's array avoids a copy per synthesized node.
+   */
+  private static boolean hasOnlySourceInfoPropValues(@Nullable Object[] values) {
+    if (values != null) {
+      for (int i = 0; i < values.length; i += 2) {
+        if (values[i] != Prop.SOURCE_FILE && values[i] != Prop.ORIGINALNAME) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   /**
    * Overwrite all the source information in this node with
    * that of {@code other}.
    */
   public final Node useSourceInfoFrom(Node other) {
-    setStaticSourceFileFrom(other);
-    putProp(Prop.ORIGINALNAME, other.getProp(Prop.ORIGINALNAME));
+    if (hasOnlySourceInfoPropValues(this.propValues)
+        && hasOnlySourceInfoPropValues(other.propValues)) {
+      // Share the other node's source info rather than building an equal array for this node.
+      propValues = other.propValues;
+    } else {
+      setStaticSourceFileFrom(other);
+      putProp(Prop.ORIGINALNAME, other.getProp(Prop.ORIGINALNAME));
+    }
     sourcePosition = other.sourcePosition;
     length = other.length;
     return this;
@@ -2557,6 +2547,14 @@ public class Node implements Serializable {
    * that of {@code other} iff the source info is missing.
    */
   public final Node useSourceInfoIfMissingFrom(Node other) {
+    if (propValues == null && hasOnlySourceInfoPropValues(other.propValues)) {
+      // This node has neither a source file nor an original name, so it can share both.
+      propValues = other.propValues;
+      sourcePosition = other.sourcePosition;
+      length = other.length;
+      return this;
+    }
+
     if (getStaticSourceFile() == null) {
       setStaticSourceFileFrom(other);
       sourcePosition = other.sourcePosition;
@@ -3670,7 +3668,7 @@ public class Node implements Serializable {
     }
     // Null marks the end of the children.
     out.writeObject(null);
-    out.writeObject(propListHead);
+    writeProps(out);
 
     if (isStartingNode) {
       List<Node> nodeList = Node.incompleteNodes;
@@ -3724,7 +3722,7 @@ public class Node implements Serializable {
       checkState(first.previous == null);
       first.previous = lastChild;
     }
-    propListHead = (PropListItem) in.readObject();
+    readProps(in);
 
     if (isStartingNode) {
       List<Node> nodeList = Node.incompleteNodes;
@@ -3735,6 +3733,25 @@ public class Node implements Serializable {
     }
   }
 
+  /**
+   * Writes the boolean props inline and the prop value array as an object, so that arrays shared
+   * between nodes (see {@link #setStaticSourceFileFrom}) are still shared once read back.
+   */
+  @GwtIncompatible("ObjectOutputStream")
+  private void writeProps(java.io.ObjectOutputStream out) throws IOException {
+    writeEncodedInt(out, (int) booleanProps);
+    writeEncodedInt(out, (int) (booleanProps >>> 32));
+    out.writeObject(propValues);
+  }
+
+  @GwtIncompatible("ObjectInputStream")
+  private void readProps(java.io.ObjectInputStream in) throws Exception {
+    long low = readEncodedInt(in) & 0xffffffffL;
+    long high = readEncodedInt(in);
+    booleanProps = (high << 32) | low;
+    propValues = (Object[]) in.readObject();
+  }
+
   /**
    * Encode integers using variable length encoding.
    *
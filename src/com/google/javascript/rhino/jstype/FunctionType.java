@@ -536,6 +536,7 @@ public class FunctionType extends PrototypeObjectType implements Serializable {
 
   /** Set the prototype without doing any sanity checks. */
   private boolean setPrototypeNoCheck(ObjectType prototype, Node propertyNode) {
+    registry.invalidateSubtypeRelations();
     ObjectType oldPrototype = prototypeSlot == null ? null : (ObjectType) prototypeSlot.getType();
     boolean replacedPrototype = oldPrototype != null;
 
@@ -639,6 +640,7 @@ public class FunctionType extends PrototypeObjectType implements Serializable {
     checkState(isConstructor());
 
     this.implementedInterfaces = ImmutableList.copyOf(implementedInterfaces);
+    registry.invalidateSubtypeRelations();
     for (ObjectType type : implementedInterfaces) {
       registry.registerTypeImplementingInterface(this, type);
       typeOfThis.mergeSupertypeTemplateTypes(type);
@@ -659,6 +661,7 @@ public class FunctionType extends PrototypeObjectType implements Serializable {
     checkState(isInterface());
 
     this.extendedInterfaces = ImmutableList.copyOf(extendedInterfaces);
+    registry.invalidateSubtypeRelations();
     for (ObjectType extendedInterface : extendedInterfaces) {
       typeOfThis.mergeSupertypeTemplateTypes(extendedInterface);
     }
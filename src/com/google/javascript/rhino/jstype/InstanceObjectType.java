@@ -51,6 +51,9 @@ final class InstanceObjectType extends PrototypeObjectType {
 
   private final FunctionType constructor;
 
+  /** The dense id of this type in its registry's {@link SubtypeRelationCache}, or 0. */
+  transient int relationCacheId = 0;
+
   private InstanceObjectType(Builder builder) {
     super(builder);
     this.constructor = checkNotNull(builder.constructor);
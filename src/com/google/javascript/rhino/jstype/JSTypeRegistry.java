@@ -243,6 +243,12 @@ public class JSTypeRegistry implements Serializable {
 
   private final JSTypeResolver resolver;
 
+  // Subtype relations between nominal types, shared by all subtype checks. Created on first use.
+  private transient SubtypeRelationCache subtypeRelationCache;
+
+  // Canonical unions, records and templatized types. Created on first use.
+  private transient TypeInterner typeInterner;
+
   public JSTypeRegistry(ErrorReporter reporter) {
     this(reporter, ImmutableSet.<String>of());
   }
@@ -1597,6 +1603,43 @@ public class JSTypeRegistry implements Serializable {
     return this.resolver;
   }
 
+  /**
+   * Returns the cache of subtype relations between nominal types, or null while types are still
+   * being defined and resolved.
+   */
+  @Nullable
+  SubtypeRelationCache getSubtypeRelationCache() {
+    if (!this.resolver.isClosed()) {
+      return null;
+    }
+    if (this.subtypeRelationCache == null) {
+      this.subtypeRelationCache = new SubtypeRelationCache();
+    }
+    return this.subtypeRelationCache;
+  }
+
+  /**
+   * Returns the canonical instances of structural types, or null while types are still being
+   * defined and resolved, when the parts of a type may still be replaced.
+   */
+  @Nullable
+  TypeInterner getTypeInterner() {
+    if (!this.resolver.isClosed()) {
+      return null;
+    }
+    if (this.typeInterner == null) {
+      this.typeInterner = new TypeInterner();
+    }
+    return this.typeInterner;
+  }
+
+  /** Forgets all cached subtype relations, after a change to the type hierarchy. */
+  void invalidateSubtypeRelations() {
+    if (this.subtypeRelationCache != null) {
+      this.subtypeRelationCache.clear();
+    }
+  }
+
   public JSType evaluateTypeExpressionInGlobalScope(JSTypeExpression expr) {
     return expr.evaluate(null, this);
   }
@@ -1964,7 +2007,17 @@ public class JSTypeRegistry implements Serializable {
     checkNotNull(baseType);
     // Only ObjectTypes can currently be templatized; extend this logic when
     // more types can be templatized.
-    return new TemplatizedType(this, baseType, templatizedTypes);
+    TypeInterner interner = getTypeInterner();
+    if (interner == null) {
+      return new TemplatizedType(this, baseType, templatizedTypes);
+    }
+    Object[] parts = new Object[templatizedTypes.size() + 2];
+    parts[0] = TemplatizedType.class;
+    parts[1] = baseType;
+    for (int i = 0; i < templatizedTypes.size(); i++) {
+      parts[i + 2] = templatizedTypes.get(i);
+    }
+    return interner.intern(() -> new TemplatizedType(this, baseType, templatizedTypes), parts);
   }
 
   /**
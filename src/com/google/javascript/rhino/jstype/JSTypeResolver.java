@@ -185,6 +185,8 @@ public final class JSTypeResolver implements Serializable {
     }
 
     this.state = State.CLOSED;
+    // Newly resolved types may have changed the prototype chains of existing ones.
+    this.registry.invalidateSubtypeRelations();
 
     // TODO(sdh): Stop doing this here. It's obviously the wrong place.
     // By default, the global "this" type is just an anonymous object.
@@ -204,6 +206,11 @@ public final class JSTypeResolver implements Serializable {
     }
   }
 
+  /** Whether all types known to this resolver have been resolved. */
+  boolean isClosed() {
+    return this.state.equals(State.CLOSED);
+  }
+
   private void doResolve(JSType type) {
     type.resolve(this.registry.getErrorReporter());
   }
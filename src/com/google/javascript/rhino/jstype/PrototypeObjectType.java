@@ -395,6 +395,7 @@ public class PrototypeObjectType extends ObjectType {
   final void setImplicitPrototype(ObjectType implicitPrototype) {
     checkState(!hasCachedValues());
     this.implicitPrototypeFallback = implicitPrototype;
+    registry.invalidateSubtypeRelations();
     if (implicitPrototype != null) {
       maybeLoosenTypecheckingDueToForwardReferencedSupertype(implicitPrototype);
     }
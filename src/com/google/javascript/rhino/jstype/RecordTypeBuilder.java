@@ -42,6 +42,7 @@ package com.google.javascript.rhino.jstype;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.javascript.rhino.Node;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A builder for record types.
@@ -89,7 +90,22 @@ public class RecordTypeBuilder {
     }
     ImmutableSortedMap.Builder<String, RecordProperty> m = ImmutableSortedMap.naturalOrder();
     m.putAll(this.properties);
-    return new RecordType(registry, m.build(), isDeclared);
+    ImmutableSortedMap<String, RecordProperty> sortedProperties = m.build();
+
+    TypeInterner interner = registry.getTypeInterner();
+    if (interner == null) {
+      return new RecordType(registry, sortedProperties, isDeclared);
+    }
+    Object[] parts = new Object[sortedProperties.size() * 3 + 2];
+    parts[0] = RecordType.class;
+    parts[1] = isDeclared;
+    int i = 2;
+    for (Map.Entry<String, RecordProperty> entry : sortedProperties.entrySet()) {
+      parts[i++] = entry.getKey();
+      parts[i++] = entry.getValue().getType();
+      parts[i++] = entry.getValue().getPropertyNode();
+    }
+    return interner.intern(() -> new RecordType(registry, sortedProperties, isDeclared), parts);
   }
 
   static class RecordProperty {
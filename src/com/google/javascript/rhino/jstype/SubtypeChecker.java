@@ -133,13 +133,44 @@ final class SubtypeChecker {
   /**
    * The top-level recursive entrypoint for subtyping logic.
    *
-   * <p>Caching is necessary to catch cyclic types. Identity caching is insufficient because some
-   * types (e.g. {@link TemplatizedType}) can generate new type instances on the fly.
+   * <p>Relations between nominal types are looked up in the registry wide {@link
+   * SubtypeRelationCache} first, since they don't depend on the rest of the check.
    */
   private boolean isSubtypeCaching(JSType subtype, JSType supertype) {
     checkNotNull(subtype);
     checkNotNull(supertype);
 
+    SubtypeRelationCache relations =
+        (this.subtypingMode == SubtypingMode.NORMAL
+                && SubtypeRelationCache.isCacheable(subtype, supertype))
+            ? this.registry.getSubtypeRelationCache()
+            : null;
+    if (relations == null) {
+      return this.isSubtypeCheckingCycles(subtype, supertype);
+    }
+
+    InstanceObjectType instance = (InstanceObjectType) subtype;
+    InstanceObjectType nominalSupertype = (InstanceObjectType) supertype;
+    @Nullable MatchStatus cached = relations.get(instance, nominalSupertype);
+    if (cached != null) {
+      return cached.subtypeValue();
+    }
+
+    boolean result = this.isSubtypeCheckingCycles(subtype, supertype);
+    // A result computed while a cycle was assumed to match only holds within this check, and
+    // unknown types may still be resolved to something else.
+    if (this.subtypeCache == null && !subtype.isUnknownType() && !supertype.isUnknownType()) {
+      relations.put(instance, nominalSupertype, result);
+    }
+    return result;
+  }
+
+  /**
+   * Caching is necessary to catch cyclic types. Identity caching is insufficient because some
+   * types (e.g. {@link TemplatizedType}) can generate new type instances on the fly.
+   */
+  private boolean isSubtypeCheckingCycles(JSType subtype, JSType supertype) {
+
     // Wait to instantiate/use the cache until we have some hint that there may be recursion.
     if (this.recursionDepth > POTENTIALLY_CYCLIC_RECURSION_DEPTH) {
       if (this.subtypeCache == null) {
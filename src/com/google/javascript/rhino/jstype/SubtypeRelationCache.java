@@ -0,0 +1,122 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+package com.google.javascript.rhino.jstype;
+
+import com.google.javascript.rhino.jstype.JSType.MatchStatus;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * A fixed size cache of subtype relations between nominal instance types, shared by all the subtype
+ * checks of one {@link JSTypeRegistry}.
+ *
+ * <p>Only pairs of class or interface instances with a non-structural supertype are cached. Their
+ * relation only depends on the prototype chain and the implemented and extended interfaces, and the
+ * registry clears this cache whenever one of those changes.
+ *
+ * <p>Each cached type gets a dense int id the first time it is looked up. An entry packs the ids of
+ * both types and the result into a single long in a slot chosen by hashing the ids, so a pair that
+ * lands in an occupied slot simply replaces the previous entry.
+ */
+final class SubtypeRelationCache {
+
+  private static final int SLOT_BITS = 15;
+
+  private final long[] entries = new long[1 << SLOT_BITS];
+  private int lastId = 0;
+  private boolean isEmpty = true;
+
+  /** Whether the relation between {@code subtype} and {@code supertype} may be cached. */
+  static boolean isCacheable(JSType subtype, JSType supertype) {
+    return subtype instanceof InstanceObjectType
+        && supertype instanceof InstanceObjectType
+        && !supertype.isStructuralType();
+  }
+
+  /** Returns whether {@code subtype} is a subtype of {@code supertype}, or null if not cached. */
+  @Nullable
+  MatchStatus get(InstanceObjectType subtype, InstanceObjectType supertype) {
+    int subtypeId = subtype.relationCacheId;
+    int supertypeId = supertype.relationCacheId;
+    if (subtypeId == 0 || supertypeId == 0) {
+      return null;
+    }
+    long key = toKey(subtypeId, supertypeId);
+    long entry = entries[slot(subtypeId, supertypeId)];
+    if ((entry & ~1L) != key) {
+      return null;
+    }
+    return MatchStatus.valueOf((entry & 1L) != 0);
+  }
+
+  void put(InstanceObjectType subtype, InstanceObjectType supertype, boolean result) {
+    int subtypeId = idOf(subtype);
+    int supertypeId = idOf(supertype);
+    if (subtypeId == 0 || supertypeId == 0) {
+      return;
+    }
+    entries[slot(subtypeId, supertypeId)] = toKey(subtypeId, supertypeId) | (result ? 1L : 0L);
+    isEmpty = false;
+  }
+
+  /** Forgets all cached relations. Type ids stay assigned. */
+  void clear() {
+    if (!isEmpty) {
+      Arrays.fill(entries, 0L);
+      isEmpty = true;
+    }
+  }
+
+  /** Returns the id of {@code type}, assigning one if needed, or 0 once the ids run out. */
+  private int idOf(InstanceObjectType type) {
+    if (type.relationCacheId == 0 && lastId < Integer.MAX_VALUE) {
+      type.relationCacheId = ++lastId;
+    }
+    return type.relationCacheId;
+  }
+
+  /** Packs two ids into the upper 63 bits of a long, leaving the lowest bit for the result. */
+  private static long toKey(int subtypeId, int supertypeId) {
+    return ((long) subtypeId << 32) | ((long) supertypeId << 1);
+  }
+
+  private static int slot(int subtypeId, int supertypeId) {
+    return ((subtypeId * 31 + supertypeId) * 0x9E3779B9) >>> (32 - SLOT_BITS);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+
+
+package com.google.javascript.rhino.jstype;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Canonical instances of the unions, records and templatized types of one {@link JSTypeRegistry},
+ * so that building the same type twice returns the same instance and comparing the two is a
+ * reference check.
+ *
+ * <p>Types are looked up by the kind of type and the parts it was built from. Parts are compared by
+ * identity, except for property names, so two types are only shared when they were built from the
+ * very same component types. That keeps lookups cheap and means the shared instance cannot differ
+ * from the one the caller would have built.
+ *
+ * <p>Type inference builds a union at every join, most of which are soon garbage, so the table only
+ * keeps the {@link #MAX_SIZE} most recently used types. A type that was evicted is simply built
+ * again, as if it had never been interned.
+ */
+final class TypeInterner {
+
+  @VisibleForTesting static final int MAX_SIZE = 1 << 14;
+
+  private final Map<Key, JSType> types = new LruTable();
+
+  /**
+   * Returns the type previously interned for {@code parts}, or the one created by {@code factory}.
+   * The first part must identify the kind of type, for example its class.
+   */
+  @SuppressWarnings("unchecked")
+  <T extends JSType> T intern(Supplier<T> factory, Object... parts) {
+    Key key = new Key(parts);
+    JSType type = this.types.get(key);
+    if (type == null) {
+      // Creating the type may resolve it, which can intern other types, so this can't be done
+      // inside computeIfAbsent.
+      type = factory.get();
+      JSType previous = this.types.putIfAbsent(key, type);
+      if (previous != null) {
+        type = previous;
+      }
+    }
+    return (T) type;
+  }
+
+  /** Returns the number of interned types. */
+  @VisibleForTesting
+  int size() {
+    return this.types.size();
+  }
+
+  private static final class LruTable extends LinkedHashMap<Key, JSType> {
+    private static final long serialVersionUID = 1L;
+
+    LruTable() {
+      super(16, 0.75f, /* accessOrder= */ true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, JSType> eldest) {
+      return size() > MAX_SIZE;
+    }
+  }
+
+  private static final class Key {
+    private final Object[] parts;
+    private final int hashCode;
+
+    Key(Object[] parts) {
+      this.parts = parts;
+      int hash = 1;
+      for (Object part : parts) {
+        int partHash = part instanceof String ? part.hashCode() : System.identityHashCode(part);
+        hash = 31 * hash + partHash;
+      }
+      this.hashCode = hash;
+    }
+
+    @Override
+    @SuppressWarnings("ReferenceEquality")
+    public boolean equals(Object other) {
+      if (!(other instanceof Key) || this.hashCode != ((Key) other).hashCode) {
+        return false;
+      }
+      Object[] otherParts = ((Key) other).parts;
+      if (parts.length != otherParts.length) {
+        return false;
+      }
+      for (int i = 0; i < parts.length; i++) {
+        Object part = parts[i];
+        Object otherPart = otherParts[i];
+        if (part != otherPart && !(part instanceof String && part.equals(otherPart))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+  }
+}
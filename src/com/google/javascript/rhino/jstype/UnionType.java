@@ -897,9 +897,18 @@ public class UnionType extends JSType {
       ImmutableList<JSType> alternates = buildInternal();
       if (alternates.size() == 1) {
         return alternates.get(0);
-      } else {
+      }
+
+      TypeInterner interner = registry.getTypeInterner();
+      if (interner == null || maxUnionSize != DEFAULT_MAX_UNION_SIZE) {
         return new UnionType(registry, alternates, maxUnionSize);
       }
+      Object[] parts = new Object[alternates.size() + 1];
+      parts[0] = UnionType.class;
+      for (int i = 0; i < alternates.size(); i++) {
+        parts[i + 1] = alternates.get(i);
+      }
+      return interner.intern(() -> new UnionType(registry, alternates, maxUnionSize), parts);
     }
 
     /** Create the final set of alternates for either a new union or a union being rebuilt. */
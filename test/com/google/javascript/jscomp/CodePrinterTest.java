@@ -3615,6 +3615,69 @@ public final class CodePrinterTest extends CodePrinterTestBase {
                 ""));
   }
 
+  @Test
+  public void testBuildToAppendableMatchesBuild() throws Exception {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      input.append("var a").append(i).append(" = `x\n").append(i).append("`; f(a").append(i);
+      input.append(");\n");
+    }
+    Node root = parse(input.toString());
+    CompilerOptions codePrinterOptions = new CompilerOptions();
+    codePrinterOptions.setLineLengthThreshold(100);
+    codePrinterOptions.setPreferLineBreakAtEndOfFile(true);
+
+    for (boolean prettyPrint : new boolean[] {false, true}) {
+      SourceMap expectedMap = Format.DEFAULT.getInstance();
+      String expected =
+          new CodePrinter.Builder(root)
+              .setCompilerOptions(codePrinterOptions)
+              .setPrettyPrint(prettyPrint)
+              .setSourceMap(expectedMap)
+              .build();
+
+      SourceMap actualMap = Format.DEFAULT.getInstance();
+      List<String> chunks = new ArrayList<>();
+      StringBuilder actual = new StringBuilder();
+      new CodePrinter.Builder(root)
+          .setCompilerOptions(codePrinterOptions)
+          .setPrettyPrint(prettyPrint)
+          .setSourceMap(actualMap)
+          .build(
+              new Appendable() {
+                @Override
+                public Appendable append(CharSequence csq) {
+                  return append(csq, 0, csq.length());
+                }
+
+                @Override
+                public Appendable append(CharSequence csq, int start, int end) {
+                  chunks.add(csq.subSequence(start, end).toString());
+                  actual.append(csq, start, end);
+                  return this;
+                }
+
+                @Override
+                public Appendable append(char c) {
+                  return append(String.valueOf(c));
+                }
+              });
+
+      assertThat(actual.toString()).isEqualTo(expected);
+      assertThat(chunks.size()).isGreaterThan(1);
+      for (String chunk : chunks.subList(0, chunks.size() - 1)) {
+        assertThat(chunk).endsWith("\n");
+      }
+      assertThat(sourceMapToString(actualMap)).isEqualTo(sourceMapToString(expectedMap));
+    }
+  }
+
+  private static String sourceMapToString(SourceMap sourceMap) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    sourceMap.appendTo(sb, "out.js");
+    return sb.toString();
+  }
+
   @Test
   public void testEs6GoogModule() {
     String code =
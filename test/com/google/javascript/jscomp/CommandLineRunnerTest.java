@@ -2294,6 +2294,47 @@ public final class CommandLineRunnerTest {
     assertThat(output).isEqualTo("alert(\"foo\");");
   }
 
+  @Test
+  public void testJsonStreamInputParsedAhead() throws IOException {
+    String inputString =
+        "[{\"src\": \"alert('foo');\", \"path\":\"foo.js\"},"
+            + " {\"src\": \"alert('bar');\", \"path\":\"bar.js\"}]";
+    args.add("--json_streams=IN");
+    args.add("--num_parallel_threads=2");
+
+    CommandLineRunner runner =
+        new CommandLineRunner(
+            args.toArray(new String[] {}),
+            new ByteArrayInputStream(inputString.getBytes(UTF_8)),
+            new PrintStream(outReader),
+            new PrintStream(errReader));
+
+    lastCompiler = runner.getCompiler();
+    runner.doRun();
+    assertThat(runner.getCompiler().toSource()).isEqualTo("alert(\"foo\");alert(\"bar\");");
+  }
+
+  @Test
+  public void testJsonStreamInputParsedAheadReportsParseErrors() throws IOException {
+    String inputString =
+        "[{\"src\": \"alert('foo');\", \"path\":\"foo.js\"},"
+            + " {\"src\": \"var x = ;\", \"path\":\"bar.js\"}]";
+    args.add("--json_streams=IN");
+    args.add("--num_parallel_threads=2");
+
+    CommandLineRunner runner =
+        new CommandLineRunner(
+            args.toArray(new String[] {}),
+            new ByteArrayInputStream(inputString.getBytes(UTF_8)),
+            new PrintStream(outReader),
+            new PrintStream(errReader));
+
+    lastCompiler = runner.getCompiler();
+    runner.doRun();
+    assertThat(runner.getCompiler().getErrors()).hasSize(1);
+    assertThat(runner.getCompiler().getErrors().get(0).getSourceName()).isEqualTo("bar.js");
+  }
+
   @Test
   public void testJsonStreamOutputFlag() {
     String inputString = "alert('foo');";
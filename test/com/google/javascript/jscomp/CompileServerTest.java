@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Splitter;
+import com.google.gson.Gson;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link CompileServer}. */
+@RunWith(JUnit4.class)
+public final class CompileServerTest {
+
+  private final Gson gson = new Gson();
+
+  @Test
+  public void testCompilesFromStdin() {
+    CompileServer.Request request = new CompileServer.Request();
+    request.args = new String[] {"--env=CUSTOM", "--js", "-"};
+    request.stdin = "var x = 1 + 2;";
+
+    CompileServer.Response response = new CompileServer().handle(request);
+
+    assertThat(response.exitCode).isEqualTo(0);
+    assertThat(response.stdout).isEqualTo("var x=3;\n");
+  }
+
+  @Test
+  public void testServesMultipleRequests() throws Exception {
+    String request = "{\"args\": [\"--env=CUSTOM\", \"--js\", \"-\"], \"stdin\": \"var a;\"}";
+    StringWriter output = new StringWriter();
+
+    new CompileServer().serve(new StringReader(request + "\n\n" + request + "\n"), output);
+
+    List<String> lines = Splitter.on('\n').omitEmptyStrings().splitToList(output.toString());
+    assertThat(lines).hasSize(2);
+    for (String line : lines) {
+      CompileServer.Response response = gson.fromJson(line, CompileServer.Response.class);
+      assertThat(response.exitCode).isEqualTo(0);
+      assertThat(response.stdout).isEqualTo("var a;\n");
+    }
+  }
+
+  @Test
+  public void testMalformedRequest() throws Exception {
+    StringWriter output = new StringWriter();
+
+    new CompileServer().serve(new StringReader("{not json\n"), output);
+
+    CompileServer.Response response =
+        gson.fromJson(output.toString().trim(), CompileServer.Response.class);
+    assertThat(response.exitCode).isEqualTo(-1);
+    assertThat(response.stderr).startsWith("Malformed request");
+  }
+
+  @Test
+  public void testNullRequest() throws Exception {
+    StringWriter output = new StringWriter();
+
+    new CompileServer().serve(new StringReader("null\n"), output);
+
+    CompileServer.Response response =
+        gson.fromJson(output.toString().trim(), CompileServer.Response.class);
+    assertThat(response.exitCode).isEqualTo(-1);
+    assertThat(response.stderr).startsWith("Malformed request");
+  }
+
+  @Test
+  public void testRequestWithoutTokenIsRejected() throws Exception {
+    String request = "{\"args\": [\"--js_output_file\", \"out.js\"]}";
+    StringWriter output = new StringWriter();
+
+    new CompileServer("secret").serve(new StringReader(request + "\n" + request + "\n"), output);
+
+    // The connection is dropped after the first rejected request.
+    List<String> lines = Splitter.on('\n').omitEmptyStrings().splitToList(output.toString());
+    assertThat(lines).hasSize(1);
+    CompileServer.Response response = gson.fromJson(lines.get(0), CompileServer.Response.class);
+    assertThat(response.exitCode).isEqualTo(-1);
+    assertThat(response.stderr).startsWith("Unauthorized request");
+  }
+
+  @Test
+  public void testRequestWithTokenIsServed() throws Exception {
+    String request =
+        "{\"args\": [\"--env=CUSTOM\", \"--js\", \"-\"], \"stdin\": \"var a;\","
+            + " \"token\": \"secret\"}";
+    StringWriter output = new StringWriter();
+
+    new CompileServer("secret").serve(new StringReader(request + "\n"), output);
+
+    CompileServer.Response response =
+        gson.fromJson(output.toString().trim(), CompileServer.Response.class);
+    assertThat(response.exitCode).isEqualTo(0);
+    assertThat(response.stdout).isEqualTo("var a;\n");
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.stream.Collectors.toList;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link CompilerEvents}. */
+@RunWith(JUnit4.class)
+public final class CompilerEventsTest {
+
+  private static final String PHASE = "com.google.javascript.jscomp.Phase";
+  private static final String PASS = "com.google.javascript.jscomp.Pass";
+  private static final String PASS_AST_SIZE = "com.google.javascript.jscomp.PassAstSize";
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsPhasesAndPasses() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(JfrCompilerEvents.PhaseEvent.class);
+      recording.enable(JfrCompilerEvents.PassEvent.class);
+      recording.enable(JfrCompilerEvents.PassAstSizeEvent.class);
+      recording.start();
+      compile("function f(x) { return 1 + 2; } f(3);");
+      recording.stop();
+      Path output = folder.newFile("compile.jfr").toPath();
+      recording.dump(output);
+      events = RecordingFile.readAllEvents(output);
+    }
+
+    assertThat(stringValues(events, PHASE, "phaseName"))
+        .containsAtLeast("parse", "check", "optimize", "print");
+    assertThat(stringValues(events, PASS, "passName")).contains(PassNames.PEEPHOLE_OPTIMIZATIONS);
+    // Folding "1 + 2" shrinks the AST.
+    assertThat(
+            ofType(events, PASS_AST_SIZE).stream()
+                .anyMatch(e -> e.getInt("astSizeDelta") < 0))
+        .isTrue();
+  }
+
+  private static void compile(String code) {
+    CompilerOptions options = new CompilerOptions();
+    CompilationLevel.SIMPLE_OPTIMIZATIONS.setOptionsForCompilationLevel(options);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js", "")),
+        ImmutableList.of(SourceFile.fromCode("input.js", code)),
+        options);
+    assertThat(compiler.getErrors()).isEmpty();
+    compiler.toSource();
+  }
+
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String eventName) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(eventName))
+        .collect(toList());
+  }
+
+  private static List<String> stringValues(
+      List<RecordedEvent> events, String eventName, String field) {
+    return ofType(events, eventName).stream().map(e -> e.getString(field)).collect(toList());
+  }
+}
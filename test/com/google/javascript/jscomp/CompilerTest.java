@@ -99,6 +99,40 @@ public final class CompilerTest {
     assertThat(cb.getColumnIndex()).isEqualTo(6);
   }
 
+  @Test
+  public void testCodeBuilderWritesToOutput() {
+    StringBuilder out = new StringBuilder();
+    Compiler.CodeBuilder cb = new Compiler.CodeBuilder(out);
+    cb.append("foo();\n");
+    cb.append("goo();");
+
+    assertThat(out.toString()).isEqualTo("foo();\ngoo();");
+    assertThat(cb.getLength()).isEqualTo(13);
+    assertThat(cb.getLineIndex()).isEqualTo(1);
+    assertThat(cb.getColumnIndex()).isEqualTo(6);
+    assertThat(cb.getLastChar()).isEqualTo(';');
+    assertThat(cb.getSecondLastChar()).isEqualTo(')');
+  }
+
+  @Test
+  public void testToSourceWritesToOutput() throws Exception {
+    CompilerOptions options = new CompilerOptions();
+    options.setPrintInputDelimiter(true);
+    options.setLineBreak(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        EMPTY_EXTERNS,
+        ImmutableList.of(
+            SourceFile.fromCode("a.js", "/** @license A */ var a = 1; function f() {}"),
+            SourceFile.fromCode("b.js", "/** @license A */ var b = a\n")),
+        options);
+    StringBuilder out = new StringBuilder();
+
+    compiler.toSource(out, null);
+
+    assertThat(out.toString()).isEqualTo(compiler.toSource());
+  }
+
   @Test
   public void testCyclicalDependencyInInputs() {
     List<SourceFile> inputs = ImmutableList.of(
@@ -1254,6 +1288,20 @@ public final class CompilerTest {
     assertThat(source).isEqualTo("'use strict';console.log(2);");
   }
 
+  @Test
+  public void testRestoreStateRejectsForeignStream() throws Exception {
+    Compiler compiler = new Compiler(new TestErrorManager());
+    compiler.options = new CompilerOptions();
+
+    try (ByteArrayInputStream byteArrayInputStream =
+        new ByteArrayInputStream(serialize("not a compiler state"))) {
+      compiler.restoreState(byteArrayInputStream);
+      fail("Expected restoreState to reject the stream");
+    } catch (RuntimeException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(IOException.class);
+    }
+  }
+
   @Test
   public void testStrictnessWithNonStrictOutputLanguage() {
     Compiler compiler = new Compiler(new TestErrorManager());
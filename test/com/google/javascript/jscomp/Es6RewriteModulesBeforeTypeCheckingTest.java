@@ -35,6 +35,7 @@ import org.junit.runners.JUnit4;
 @RunWith(JUnit4.class)
 public final class Es6RewriteModulesBeforeTypeCheckingTest extends CompilerTestCase {
   private ImmutableList<String> moduleRoots = null;
+  private int numParallelThreads = 1;
 
   private static final SourceFile other =
       SourceFile.fromCode(
@@ -82,6 +83,7 @@ public final class Es6RewriteModulesBeforeTypeCheckingTest extends CompilerTestC
     // ECMASCRIPT5 to Trigger module processing after parsing.
     options.setLanguageOut(LanguageMode.ECMASCRIPT5);
     options.setWarningLevel(DiagnosticGroups.LINT_CHECKS, CheckLevel.ERROR);
+    options.setNumParallelThreads(numParallelThreads);
 
     if (moduleRoots != null) {
       options.setModuleRoots(moduleRoots);
@@ -113,6 +115,23 @@ public final class Es6RewriteModulesBeforeTypeCheckingTest extends CompilerTestC
         expected(otherExpected, SourceFile.fromCode("testcode", expected)));
   }
 
+  @Test
+  public void testImportInParallel() {
+    numParallelThreads = 4;
+
+    testModules(
+        lines(
+            "import name from './other.js';", //
+            "use(name);"),
+        "use($jscompDefaultExport$$module$other); /** @const */ var module$testcode = {};");
+
+    testModules(
+        lines(
+            "import * as name from './other.js';", //
+            "use(name.a);"),
+        "use(a$$module$other); /** @const */ var module$testcode = {};");
+  }
+
   @Test
   public void testImport() {
     testModules(
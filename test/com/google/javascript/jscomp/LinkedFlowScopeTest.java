@@ -142,6 +142,28 @@ public final class LinkedFlowScopeTest extends CompilerTypeTestCase {
   }
 
   /** Create a long chain of flow scopes. */
+  @Test
+  public void testJoinReturnsInputWhenUnchanged() {
+    FlowScope childNumber = localEntry.inferSlotType("localA", getNativeNumberType());
+    FlowScope childString = localEntry.inferSlotType("localA", getNativeStringType());
+    FlowScope childNumberOrString =
+        localEntry.inferSlotType(
+            "localA", createUnionType(getNativeNumberType(), getNativeStringType()));
+    LinkedFlowScope.FlowScopeJoinOp joinOp = new LinkedFlowScope.FlowScopeJoinOp(compiler);
+
+    assertThat(joinOp.apply(ImmutableList.of(childNumber, childNumberOrString)))
+        .isSameInstanceAs(childNumberOrString);
+    assertThat(joinOp.apply(ImmutableList.of(childNumberOrString, childNumber)))
+        .isSameInstanceAs(childNumberOrString);
+
+    FlowScope joined = joinOp.apply(ImmutableList.of(childNumber, childString));
+    assertThat(joined).isNotSameInstanceAs(childNumber);
+    assertThat(joined).isNotSameInstanceAs(childString);
+
+    assertThat(joinOp.getJoinCount()).isEqualTo(3);
+    assertThat(joinOp.getAllocatingJoinCount()).isEqualTo(1);
+  }
+
   @Test
   public void testLongChain() {
     FlowScope chainA = localEntry;
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.javascript.rhino.testing.NodeSubject.assertNode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.Config.LanguageMode;
+import com.google.javascript.jscomp.parsing.Config.StrictMode;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.testing.TestErrorReporter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ParseCache}. */
+@RunWith(JUnit4.class)
+public final class ParseCacheTest {
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private ParseCache cache;
+  private Config config;
+
+  @Before
+  public void setUp() {
+    cache = new ParseCache(folder.getRoot().toPath());
+    config = ParserRunner.createConfig(LanguageMode.ES_NEXT, null, StrictMode.SLOPPY);
+  }
+
+  @Test
+  public void testMiss() {
+    SourceFile file = SourceFile.fromCode("a.js", "var a = 1;");
+
+    assertThat(cache.get(file, "var a = 1;", config)).isNull();
+  }
+
+  @Test
+  public void testRoundTrip() {
+    String code = "/** @type {number} */ var a = 1; function f(x) { return x + a; }";
+    SourceFile file = SourceFile.fromCode("a.js", code);
+    ParserRunner.ParseResult parsed = parse(file, code, config);
+
+    cache.put(file, code, config, parsed);
+
+    // A later compilation has its own SourceFile instance for the same file.
+    SourceFile laterFile = SourceFile.fromCode("a.js", code);
+    ParserRunner.ParseResult cached = cache.get(laterFile, code, config);
+    assertThat(cached).isNotNull();
+    assertNode(cached.ast).isEqualTo(parsed.ast);
+    assertThat(cached.features).isEqualTo(parsed.features);
+    assertThat(cached.lineOffsets).isEqualTo(parsed.lineOffsets);
+    assertThat(cached.lineOffsets).isNotNull();
+    assertThat(cached.ast.getStaticSourceFile()).isSameInstanceAs(laterFile);
+    Node var = cached.ast.getFirstChild();
+    assertThat(var.getJSDocInfo()).isNotNull();
+    assertThat(var.getStaticSourceFile()).isSameInstanceAs(laterFile);
+  }
+
+  @Test
+  public void testChangedContentIsAMiss() {
+    String code = "var a = 1;";
+    SourceFile file = SourceFile.fromCode("a.js", code);
+    cache.put(file, code, config, parse(file, code, config));
+
+    assertThat(cache.get(file, "var a = 2;", config)).isNull();
+  }
+
+  @Test
+  public void testChangedConfigIsAMiss() {
+    String code = "var a = 1;";
+    SourceFile file = SourceFile.fromCode("a.js", code);
+    cache.put(file, code, config, parse(file, code, config));
+
+    Config es5Config = ParserRunner.createConfig(LanguageMode.ECMASCRIPT5, null, StrictMode.SLOPPY);
+    assertThat(cache.get(file, code, es5Config)).isNull();
+  }
+
+  @Test
+  public void testForeignClassIsNotDeserialized() throws Exception {
+    String code = "var a = 1;";
+    SourceFile file = SourceFile.fromCode("a.js", code);
+    cache.put(file, code, config, parse(file, code, config));
+    File[] entries = folder.getRoot().listFiles();
+    assertThat(entries).hasLength(1);
+    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(entries[0]))) {
+      out.writeObject(new Gadget());
+    }
+
+    assertThat(cache.get(file, code, config)).isNull();
+    assertThat(Gadget.wasRead).isFalse();
+  }
+
+  /** A class whose deserialization has a visible side effect. */
+  private static final class Gadget implements Serializable {
+    private static final long serialVersionUID = 1L;
+    static boolean wasRead = false;
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      wasRead = true;
+    }
+  }
+
+  @Test
+  public void testCompilerUsesCache() {
+    CompilerOptions options = new CompilerOptions();
+    options.setParseCacheDirectory(folder.getRoot().getPath());
+    String code = "var a = 1;";
+
+    Compiler compiler = new Compiler();
+    compiler.init(
+        ImmutableList.of(SourceFile.fromCode("externs.js", "")),
+        ImmutableList.of(SourceFile.fromCode("a.js", code)),
+        options);
+    compiler.parse();
+    assertThat(compiler.getErrors()).isEmpty();
+
+    SourceFile file = SourceFile.fromCode("a.js", code);
+    Config compilerConfig = compiler.getParserConfig(AbstractCompiler.ConfigContext.DEFAULT);
+    assertThat(cache.get(file, code, compilerConfig)).isNotNull();
+  }
+
+  private static ParserRunner.ParseResult parse(SourceFile file, String code, Config config) {
+    return ParserRunner.parse(file, code, config, new TestErrorReporter());
+  }
+}
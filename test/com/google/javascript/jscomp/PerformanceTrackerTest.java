@@ -185,6 +185,27 @@ public final class PerformanceTrackerTest {
     assertThat(report).matches(p);
   }
 
+  @Test
+  public void testCounters() {
+    PerformanceTracker tracker =
+        new PerformanceTracker(emptyExternRoot, emptyJsRoot, TracerMode.TIMING_ONLY);
+
+    tracker.recordCounter("b", 2);
+    tracker.recordCounter("a", 1);
+    tracker.recordCounter("b", 3);
+
+    assertThat(tracker.getCounters()).containsExactly("a", 1L, "b", 5L).inOrder();
+    assertThat(extractReport(tracker))
+        .containsMatch(
+            Pattern.compile(
+                lines(
+                    "Counters:", //
+                    "counter,count",
+                    "a,1",
+                    "b,5"),
+                Pattern.DOTALL));
+  }
+
   private static final String extractReport(PerformanceTracker tracker) {
     ByteArrayOutputStream output = new ByteArrayOutputStream();
     try (PrintStream outstream = new PrintStream(output)) {
@@ -29,8 +29,11 @@ import com.google.javascript.rhino.IR;
 import com.google.javascript.rhino.Node;
 import com.google.javascript.rhino.Token;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -123,6 +126,71 @@ public final class PhaseOptimizerTest {
     }
   }
 
+  @Test
+  public void testParallelizablePerScriptPass() {
+    compiler.getOptions().setNumParallelThreads(4);
+    dummyRoot.addChildToBack(IR.script());
+    dummyRoot.addChildToBack(IR.script());
+    List<Node> scriptsVisited = Collections.synchronizedList(new ArrayList<>());
+    optimizer.addOneTimePass(
+        PassFactory.builderForHotSwap()
+            .setName("perScript")
+            .setParallelizablePerScript(true)
+            .setInternalFactory(
+                (compiler) ->
+                    new HotSwapCompilerPass() {
+                      @Override
+                      public void process(Node externs, Node root) {
+                        throw new AssertionError("Expected to run per script");
+                      }
+
+                      @Override
+                      public void hotSwapScript(Node scriptRoot, Node originalRoot) {
+                        scriptsVisited.add(scriptRoot);
+                      }
+                    })
+            .setFeatureSet(FeatureSet.latest())
+            .build());
+
+    optimizer.process(null, dummyRoot);
+
+    assertThat(scriptsVisited).containsExactlyElementsIn(dummyRoot.children());
+  }
+
+  @Test
+  public void testParallelizablePerScriptPassesShareThreads() {
+    compiler.getOptions().setNumParallelThreads(2);
+    dummyRoot.addChildToBack(IR.script());
+    Set<Thread> threadsUsed = Collections.synchronizedSet(new HashSet<>());
+    for (int i = 0; i < 3; i++) {
+      optimizer.addOneTimePass(
+          PassFactory.builderForHotSwap()
+              .setName("perScript" + i)
+              .setParallelizablePerScript(true)
+              .setInternalFactory(
+                  (compiler) ->
+                      new HotSwapCompilerPass() {
+                        @Override
+                        public void process(Node externs, Node root) {
+                          throw new AssertionError("Expected to run per script");
+                        }
+
+                        @Override
+                        public void hotSwapScript(Node scriptRoot, Node originalRoot) {
+                          threadsUsed.add(Thread.currentThread());
+                        }
+                      })
+              .setFeatureSet(FeatureSet.latest())
+              .build());
+    }
+
+    optimizer.process(null, dummyRoot);
+
+    // A pool per pass would have started two threads for each of the three passes.
+    assertThat(threadsUsed.size()).isAtMost(2);
+    assertThat(threadsUsed).doesNotContain(Thread.currentThread());
+  }
+
   @Test
   public void testSchedulingOfAnyKindOfPasses1() {
     addOneTimePass("a");
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.javascript.rhino.testing.NodeSubject.assertNode;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.parsing.Config;
+import com.google.javascript.jscomp.parsing.Config.LanguageMode;
+import com.google.javascript.jscomp.parsing.Config.StrictMode;
+import com.google.javascript.jscomp.parsing.ParserRunner;
+import com.google.javascript.rhino.JSDocInfo;
+import com.google.javascript.rhino.Node;
+import com.google.javascript.rhino.testing.TestErrorReporter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SharedExternsAsts}. */
+@RunWith(JUnit4.class)
+public final class SharedExternsAstsTest {
+
+  private static final String EXTERNS =
+      "/** @constructor */ function Foo() {}\n"
+          + "/** @return {number} */ Foo.prototype.bar = function() {};";
+
+  private SharedExternsAsts shared;
+  private Config config;
+
+  @Before
+  public void setUp() {
+    shared = new SharedExternsAsts();
+    config = ParserRunner.createConfig(LanguageMode.ES_NEXT, null, StrictMode.SLOPPY);
+  }
+
+  @Test
+  public void testMiss() {
+    SourceFile file = SourceFile.fromCode("externs.js", EXTERNS);
+
+    assertThat(shared.get(file, EXTERNS, config)).isNull();
+  }
+
+  @Test
+  public void testReturnsCopy() {
+    SourceFile file = SourceFile.fromCode("externs.js", EXTERNS);
+    ParserRunner.ParseResult parsed = parse(file, EXTERNS, config);
+
+    shared.put(file, EXTERNS, config, parsed);
+    // Passes may modify the AST the parser returned.
+    parsed.ast.removeChildren();
+
+    SourceFile laterFile = SourceFile.fromCode("externs.js", EXTERNS);
+    ParserRunner.ParseResult first = shared.get(laterFile, EXTERNS, config);
+    ParserRunner.ParseResult second = shared.get(laterFile, EXTERNS, config);
+    assertNode(first.ast).isEqualTo(parse(laterFile, EXTERNS, config).ast);
+    assertNode(second.ast).isEqualTo(first.ast);
+    assertThat(second.ast).isNotSameInstanceAs(first.ast);
+    assertThat(first.features).isEqualTo(parsed.features);
+    assertThat(first.lineOffsets).isEqualTo(parsed.lineOffsets);
+
+    Node assign = first.ast.getSecondChild().getFirstChild();
+    assertThat(assign.getStaticSourceFile()).isSameInstanceAs(laterFile);
+    assertThat(assign.getLastChild().getStaticSourceFile()).isSameInstanceAs(laterFile);
+    JSDocInfo info = assign.getJSDocInfo();
+    assertThat(info)
+        .isNotSameInstanceAs(second.ast.getSecondChild().getFirstChild().getJSDocInfo());
+    assertThat(info.getReturnType().getRoot().getStaticSourceFile()).isSameInstanceAs(laterFile);
+  }
+
+  @Test
+  public void testChangedContentIsAMiss() {
+    SourceFile file = SourceFile.fromCode("externs.js", EXTERNS);
+    shared.put(file, EXTERNS, config, parse(file, EXTERNS, config));
+
+    assertThat(shared.get(file, "var a;", config)).isNull();
+  }
+
+  @Test
+  public void testChangedConfigIsAMiss() {
+    SourceFile file = SourceFile.fromCode("externs.js", EXTERNS);
+    shared.put(file, EXTERNS, config, parse(file, EXTERNS, config));
+
+    Config es5Config = ParserRunner.createConfig(LanguageMode.ECMASCRIPT5, null, StrictMode.SLOPPY);
+    assertThat(shared.get(file, EXTERNS, es5Config)).isNull();
+  }
+
+  @Test
+  public void testCompilersShareExterns() {
+    Compiler first = compile("new Foo().baz();");
+    assertThat(shared.size()).isEqualTo(1);
+    Compiler second = compile("var x = new Foo().bar();");
+
+    assertThat(first.getWarnings()).hasSize(1);
+    assertThat(first.getWarnings().get(0).getType()).isEqualTo(TypeCheck.INEXISTENT_PROPERTY);
+    assertThat(second.getWarnings()).isEmpty();
+    assertThat(second.getErrors()).isEmpty();
+    assertNode(second.getExternsRoot()).isEqualTo(first.getExternsRoot());
+    assertThat(second.getExternsRoot().getFirstChild())
+        .isNotSameInstanceAs(first.getExternsRoot().getFirstChild());
+  }
+
+  @Test
+  public void testInputsAreNotShared() {
+    compile("var a;");
+
+    assertThat(shared.size()).isEqualTo(1);
+  }
+
+  private Compiler compile(String code) {
+    CompilerOptions options = new CompilerOptions();
+    options.setCheckTypes(true);
+    options.setWarningLevel(DiagnosticGroups.MISSING_PROPERTIES, CheckLevel.WARNING);
+    options.setSharedExternsAsts(shared);
+    Compiler compiler = new Compiler();
+    compiler.compile(
+        ImmutableList.of(SourceFile.fromCode("externs.js", EXTERNS)),
+        ImmutableList.of(SourceFile.fromCode("input.js", code)),
+        options);
+    return compiler;
+  }
+
+  private static ParserRunner.ParseResult parse(SourceFile file, String code, Config config) {
+    return ParserRunner.parse(file, code, config, new TestErrorReporter());
+  }
+}
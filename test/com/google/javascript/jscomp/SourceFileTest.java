@@ -17,6 +17,7 @@
 package com.google.javascript.jscomp;
 
 import static com.google.common.truth.Truth.assertThat;
+import static com.google.javascript.rhino.testing.Asserts.assertThrows;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.collect.Iterables;
@@ -243,6 +244,90 @@ public final class SourceFileTest {
     assertThat(actualContent).isEqualTo(expectedContent);
   }
 
+  @Test
+  public void testDiskFileReleaseCodeAfterParse() throws IOException {
+    String expectedContent = "\uFEFFvar c;\nvar \u00e9;";
+
+    Path tempFile = folder.newFile("test.js").toPath();
+    MoreFiles.asCharSink(tempFile, UTF_8).write(expectedContent);
+
+    SourceFile newFile = SourceFile.fromFile(tempFile.toString());
+    assertThat(newFile.getCode()).isEqualTo("var c;\nvar \u00e9;");
+
+    newFile.releaseCodeAfterParse();
+
+    assertThat(newFile.hasSourceInMemory()).isFalse();
+    assertThat(newFile.getLineOffset(2)).isEqualTo(7);
+    assertThat(newFile.hasSourceInMemory()).isFalse();
+    assertThat(newFile.getLine(2)).isEqualTo("var \u00e9;");
+    assertThat(newFile.hasSourceInMemory()).isTrue();
+  }
+
+  @Test
+  public void testDiskFileChangedAfterReleaseIsDetected() throws IOException {
+    Path tempFile = folder.newFile("test.js").toPath();
+    MoreFiles.asCharSink(tempFile, UTF_8).write("var c;\nvar d;");
+
+    SourceFile newFile = SourceFile.fromFile(tempFile.toString());
+    assertThat(newFile.getCode()).isEqualTo("var c;\nvar d;");
+    newFile.releaseCodeAfterParse();
+
+    MoreFiles.asCharSink(tempFile, UTF_8).write("var cc;\nvar d;");
+
+    assertThrows(IOException.class, newFile::getCode);
+    // The line offsets of the parsed text are kept.
+    assertThat(newFile.getLineOffset(2)).isEqualTo(7);
+  }
+
+  @Test
+  public void testDiskFileReleaseCodeAfterParseKeepsOverriddenCode() throws IOException {
+    Path tempFile = folder.newFile("test.json").toPath();
+    MoreFiles.asCharSink(tempFile, UTF_8).write("{}");
+
+    SourceFile newFile = SourceFile.fromFile(tempFile.toString());
+    newFile.setCode("(" + newFile.getCode() + ")");
+    newFile.releaseCodeAfterParse();
+
+    assertThat(newFile.hasSourceInMemory()).isTrue();
+    assertThat(newFile.getCode()).isEqualTo("({})");
+  }
+
+  @Test
+  public void testZipEntryReleaseCodeAfterParse() throws IOException {
+    Path jsZipPath = folder.newFile("test.js.zip").toPath();
+    createZipWithContent(jsZipPath, "var a;\nvar b;");
+    SourceFile zipSourceFile =
+        SourceFile.fromZipEntry(
+            jsZipPath.toString(), jsZipPath.toAbsolutePath().toString(), "foo.js", UTF_8);
+    assertThat(zipSourceFile.getCode()).isEqualTo("var a;\nvar b;");
+
+    zipSourceFile.releaseCodeAfterParse();
+
+    assertThat(zipSourceFile.hasSourceInMemory()).isFalse();
+    assertThat(zipSourceFile.getLineOffset(2)).isEqualTo(7);
+    assertThat(zipSourceFile.getLine(2)).isEqualTo("var b;");
+  }
+
+  @Test
+  public void testCodeFromStringIsNotReleased() throws IOException {
+    SourceFile newFile = SourceFile.fromCode("test.js", "var c;");
+
+    newFile.releaseCodeAfterParse();
+
+    assertThat(newFile.getCode()).isEqualTo("var c;");
+  }
+
+  @Test
+  public void testMalformedDiskFile() throws IOException {
+    Path tempFile = folder.newFile("test.js").toPath();
+    Files.write(tempFile, new byte[] {'a', (byte) 0xff, 'b'});
+
+    SourceFile newFile = SourceFile.fromFile(tempFile.toString());
+
+    IOException e = assertThrows(IOException.class, newFile::getCode);
+    assertThat(e).hasMessageThat().contains("is this input UTF-8 encoded?");
+  }
+
   private static class CodeGeneratorHelper implements SourceFile.Generator {
     int reads = 0;
 
@@ -92,6 +92,28 @@ public final class TypeCheckNoTranspileTest extends TypeCheckTestCase {
             "required: null"));
   }
 
+  @Test
+  public void testInferenceWithParallelCfgs() {
+    compiler.getOptions().setNumParallelThreads(4);
+    testTypes(
+        lines(
+            "/** @param {string} s */ function f(s) {}",
+            "let g = () => {",
+            "  const x = 1;",
+            "  let h = () => { f(x); };",
+            "};",
+            "let k = () => { var /** null */ y = 1; };"),
+        ImmutableList.of(
+            lines(
+                "actual parameter 1 of f does not match formal parameter",
+                "found   : number",
+                "required: string"),
+            lines(
+                "initializing variable", //
+                "found   : number",
+                "required: null")));
+  }
+
   @Test
   public void testArrowRightBodyScopeForBlocklessBody() {
     testTypes(
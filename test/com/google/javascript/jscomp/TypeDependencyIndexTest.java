@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link TypeDependencyIndex}. */
+@RunWith(JUnit4.class)
+public final class TypeDependencyIndexTest {
+
+  private static final ImmutableList<SourceFile> INPUTS =
+      ImmutableList.of(
+          SourceFile.fromCode("a.js", "/** @constructor */ function A() {}"),
+          SourceFile.fromCode("b.js", "var ns = {}; /** @param {!A} a */ ns.f = function(a) {};"),
+          SourceFile.fromCode("c.js", "ns.f(new A()); ns.f(1);"),
+          SourceFile.fromCode("d.js", "/** @type {string} */ var d = 0;"));
+
+  @Test
+  public void testRecordsDependencies() {
+    TypeDependencyIndex index = compile().getTypeDependencyIndex();
+
+    assertThat(index.getDependencies("a.js")).isEmpty();
+    assertThat(index.getDependencies("b.js")).containsExactly("a.js");
+    assertThat(index.getDependencies("c.js")).containsExactly("a.js", "b.js");
+    assertThat(index.getDependencies("d.js")).isEmpty();
+  }
+
+  @Test
+  public void testFilesAffectedBy() {
+    TypeDependencyIndex index = compile().getTypeDependencyIndex();
+
+    assertThat(index.getFilesAffectedBy(ImmutableList.of("a.js")))
+        .containsExactly("a.js", "b.js", "c.js");
+    assertThat(index.getFilesAffectedBy(ImmutableList.of("b.js"))).containsExactly("b.js", "c.js");
+    assertThat(index.getFilesAffectedBy(ImmutableList.of("d.js"))).containsExactly("d.js");
+  }
+
+  @Test
+  public void testSerializeRoundTrip() {
+    TypeDependencyIndex index = compile().getTypeDependencyIndex();
+
+    TypeDependencyIndex parsed = TypeDependencyIndex.parse(index.serialize());
+
+    assertThat(parsed.getDependencies("c.js")).containsExactly("a.js", "b.js");
+    assertThat(parsed.getFilesAffectedBy(ImmutableList.of("a.js")))
+        .containsExactly("a.js", "b.js", "c.js");
+  }
+
+  private static Compiler compile() {
+    CompilerOptions options = new CompilerOptions();
+    options.setCheckTypes(true);
+    options.setRecordTypeDependencies(true);
+    Compiler compiler = new Compiler();
+    compiler.compile(ImmutableList.of(SourceFile.fromCode("externs.js", "")), INPUTS, options);
+    return compiler;
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.javascript.jscomp.deps;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.javascript.jscomp.deps.DependencyInfo.Require;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link DependencyIndex}. */
+@RunWith(JUnit4.class)
+public final class DependencyIndexTest {
+
+  private static final SimpleDependencyInfo A = info("a", "a", "b", "c");
+  private static final SimpleDependencyInfo B = info("b", "b", "d");
+  private static final SimpleDependencyInfo C = info("c", "c", "d");
+  private static final SimpleDependencyInfo D = info("d", "d");
+
+  @Test
+  public void testSortedListMatchesEs6SortedDependencies() {
+    ImmutableList<SimpleDependencyInfo> inputs =
+        ImmutableList.of(
+            info("ab", "a", "d", "f"),
+            info("c", "c", "h"),
+            info("d", "d", "e", "f"),
+            info("ef", "e", "g", "c"),
+            info("g", "g"),
+            info("hi", "h"),
+            SimpleDependencyInfo.builder("script", "script").build());
+
+    DependencyIndex<SimpleDependencyInfo> index = new DependencyIndex<>(inputs);
+    Es6SortedDependencies<SimpleDependencyInfo> sorted = new Es6SortedDependencies<>(inputs);
+
+    assertThat(index.getSortedList()).isEqualTo(sorted.getSortedList());
+    assertThat(index.getInputsWithoutProvides()).isEqualTo(sorted.getInputsWithoutProvides());
+    assertThat(index.getStrongDependenciesOf(ImmutableList.of(inputs.get(0)), false))
+        .isEqualTo(sorted.getStrongDependenciesOf(ImmutableList.of(inputs.get(0)), false));
+  }
+
+  @Test
+  public void testSortedStrongDependenciesOf() {
+    DependencyIndex<SimpleDependencyInfo> index =
+        new DependencyIndex<>(ImmutableList.of(A, B, C, D));
+
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(A)))
+        .containsExactly(D, B, C, A)
+        .inOrder();
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(C)))
+        .containsExactly(D, C)
+        .inOrder();
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(C, B)))
+        .containsExactly(D, C, B)
+        .inOrder();
+  }
+
+  @Test
+  public void testPutReplacesInput() throws Exception {
+    DependencyIndex<SimpleDependencyInfo> index =
+        new DependencyIndex<>(ImmutableList.of(A, B, C, D));
+    SimpleDependencyInfo newB = info("b", "b", "c");
+
+    assertThat(index.put(newB)).isSameInstanceAs(B);
+
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.getInputProviding("b")).isSameInstanceAs(newB);
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(newB)))
+        .containsExactly(D, C, newB)
+        .inOrder();
+    // The replacement keeps the position of the input it replaced.
+    assertThat(index.getSortedList()).containsExactly(D, C, newB, A).inOrder();
+  }
+
+  @Test
+  public void testPutNewInput() throws Exception {
+    DependencyIndex<SimpleDependencyInfo> index = new DependencyIndex<>(ImmutableList.of(A, B));
+
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(A)))
+        .containsExactly(B, A)
+        .inOrder();
+
+    assertThat(index.put(C)).isNull();
+    assertThat(index.put(D)).isNull();
+
+    assertThat(index.getSortedStrongDependenciesOf(ImmutableList.of(A)))
+        .containsExactly(D, B, C, A)
+        .inOrder();
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    DependencyIndex<SimpleDependencyInfo> index =
+        new DependencyIndex<>(ImmutableList.of(A, B, C, D));
+
+    assertThat(index.remove("d")).isSameInstanceAs(D);
+    assertThat(index.remove("d")).isNull();
+
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.maybeGetInputProviding("d")).isNull();
+    assertThat(index.getSortedList()).containsExactly(B, C, A).inOrder();
+  }
+
+  @Test
+  public void testDuplicateProvides() throws Exception {
+    SimpleDependencyInfo otherD = info("otherD", "d");
+    DependencyIndex<SimpleDependencyInfo> index =
+        new DependencyIndex<>(ImmutableList.of(D, otherD));
+
+    // The input added last wins, as in Es6SortedDependencies.
+    assertThat(index.getInputProviding("d")).isSameInstanceAs(otherD);
+
+    // Replacing the first input does not change which one wins.
+    SimpleDependencyInfo newD = info("d", "d");
+    index.put(newD);
+    assertThat(index.getInputProviding("d")).isSameInstanceAs(otherD);
+
+    index.remove("otherD");
+    assertThat(index.getInputProviding("d")).isSameInstanceAs(newD);
+  }
+
+  @Test
+  public void testSortedWeakDependenciesOf() {
+    SimpleDependencyInfo a =
+        SimpleDependencyInfo.builder("a", "a").setProvides("a").setTypeRequires("b").build();
+    SimpleDependencyInfo b =
+        SimpleDependencyInfo.builder("b", "b")
+            .setProvides("b")
+            .setRequires(Require.googRequireSymbol("c"))
+            .build();
+    SimpleDependencyInfo c = SimpleDependencyInfo.builder("c", "c").setProvides("c").build();
+    DependencyIndex<SimpleDependencyInfo> index = new DependencyIndex<>(ImmutableList.of(a, b, c));
+
+    assertThat(index.getSortedWeakDependenciesOf(ImmutableList.of(a)))
+        .containsExactly(c, b)
+        .inOrder();
+  }
+
+  @Test
+  public void testSortedWeakDependenciesOfMatchesEs6SortedDependencies() {
+    // "unrelated" is neither a strong nor a weak dependency, but it puts w2 before w1 in the
+    // sorted list.
+    SimpleDependencyInfo unrelated = info("unrelated", "unrelated", "w2");
+    SimpleDependencyInfo w1 = info("w1", "w1");
+    SimpleDependencyInfo w2 = info("w2", "w2");
+    SimpleDependencyInfo root =
+        SimpleDependencyInfo.builder("root", "root")
+            .setProvides("root")
+            .setTypeRequires("w1", "w2")
+            .build();
+    ImmutableList<SimpleDependencyInfo> inputs = ImmutableList.of(unrelated, w1, w2, root);
+
+    DependencyIndex<SimpleDependencyInfo> index = new DependencyIndex<>(inputs);
+    Es6SortedDependencies<SimpleDependencyInfo> sorted = new Es6SortedDependencies<>(inputs);
+
+    assertThat(index.getSortedWeakDependenciesOf(ImmutableList.of(root)))
+        .containsExactly(w2, w1)
+        .inOrder();
+    assertThat(index.getSortedWeakDependenciesOf(ImmutableList.of(root)))
+        .isEqualTo(sorted.getSortedWeakDependenciesOf(ImmutableList.of(root)));
+  }
+
+  @Test
+  public void testRemoveRestoresEarlierScriptWithSameModuleName() throws Exception {
+    SimpleDependencyInfo first = SimpleDependencyInfo.builder("foo", "foo").build();
+    SimpleDependencyInfo second = SimpleDependencyInfo.builder("foo.js", "foo.js").build();
+    DependencyIndex<SimpleDependencyInfo> index =
+        new DependencyIndex<>(ImmutableList.of(first, second));
+
+    assertThat(index.maybeGetInputProviding("foo.js")).isSameInstanceAs(second);
+
+    index.remove("foo.js");
+    assertThat(index.maybeGetInputProviding("foo.js")).isSameInstanceAs(first);
+
+    index.remove("foo");
+    assertThat(index.maybeGetInputProviding("foo.js")).isNull();
+  }
+
+  private static SimpleDependencyInfo info(String name, String provide, String... requires) {
+    ImmutableList.Builder<Require> requireList = ImmutableList.builder();
+    for (String require : requires) {
+      requireList.add(Require.googRequireSymbol(require));
+    }
+    return SimpleDependencyInfo.builder(name, name)
+        .setProvides(provide)
+        .setRequires(requireList.build())
+        .build();
+  }
+}
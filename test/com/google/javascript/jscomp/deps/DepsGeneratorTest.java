@@ -26,10 +26,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.javascript.jscomp.ErrorManager;
 import com.google.javascript.jscomp.PrintStreamErrorManager;
 import com.google.javascript.jscomp.SourceFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
@@ -38,6 +42,9 @@ import org.junit.runners.JUnit4;
 public final class DepsGeneratorTest {
 
   private static final Joiner LINE_JOINER = Joiner.on("\n");
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
   private ErrorManager errorManager;
 
   @Before
@@ -592,6 +599,117 @@ public final class DepsGeneratorTest {
         "Could not find file \"./missing.js\".");
   }
 
+  @Test
+  public void testParallelScanningMatchesSequential() throws Exception {
+    List<SourceFile> srcs = new ArrayList<>();
+    srcs.add(
+        SourceFile.fromCode(
+            "/base/javascript/foo/a.js", "goog.provide('a');\ngoog.require('b');\nlet x = 1;"));
+    srcs.add(SourceFile.fromCode("/base/javascript/foo/b.js", "goog.module('b');"));
+    srcs.add(SourceFile.fromCode("/base/javascript/foo/c.js", "import './d.js';"));
+    srcs.add(SourceFile.fromCode("/base/javascript/foo/d.js", "export var d;"));
+
+    String sequential = newDepsGenerator(srcs).computeDependencyCalls();
+    String parallel = newDepsGenerator(srcs).setNumParallelThreads(4).computeDependencyCalls();
+
+    assertNoWarnings();
+    assertThat(parallel).isEqualTo(sequential);
+  }
+
+  @Test
+  public void testParallelScanningReportsErrors() throws Exception {
+    SourceFile src1 = SourceFile.fromCode("/base/javascript/foo/a.js", "import './missing.js';");
+
+    String output =
+        newDepsGenerator(ImmutableList.of(src1)).setNumParallelThreads(2).computeDependencyCalls();
+
+    assertThat(output).isNull();
+    assertErrors("Could not find file \"./missing.js\".");
+  }
+
+  @Test
+  public void testCacheFileSkipsSourcesWithParseErrors() throws Exception {
+    Path cacheFile = folder.getRoot().toPath().resolve("deps.cache");
+    SourceFile a = SourceFile.fromCode("/base/javascript/foo/a.js", "goog.provide('a'); var = 1;");
+
+    String output =
+        newDepsGenerator(ImmutableList.of(a)).setCacheFile(cacheFile).computeDependencyCalls();
+
+    assertThat(output).isNull();
+    assertThat(errorManager.getErrorCount()).isEqualTo(1);
+    assertThat(DependencyInfoCache.load(cacheFile).get(a.getName(), "../foo/a.js", a.getCode()))
+        .isNull();
+
+    // The error is reported again rather than skipped through the cache.
+    errorManager = new PrintStreamErrorManager(System.err);
+    output = newDepsGenerator(ImmutableList.of(a)).setCacheFile(cacheFile).computeDependencyCalls();
+
+    assertThat(output).isNull();
+    assertThat(errorManager.getErrorCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCacheFile() throws Exception {
+    Path cacheFile = folder.getRoot().toPath().resolve("deps.cache");
+    SourceFile a = SourceFile.fromCode("/base/javascript/foo/a.js", "goog.provide('a');");
+    SourceFile b = SourceFile.fromCode("/base/javascript/foo/b.js", "goog.module('b');");
+
+    String first =
+        newDepsGenerator(ImmutableList.of(a, b)).setCacheFile(cacheFile).computeDependencyCalls();
+    assertThat(Files.exists(cacheFile)).isTrue();
+
+    // Replace the entry for a.js with one a scan would never produce, so its use proves a hit.
+    DependencyInfoCache cache = DependencyInfoCache.load(cacheFile);
+    DependencyInfo scannedA = cache.get(a.getName(), "../foo/a.js", a.getCode());
+    assertThat(scannedA).isNotNull();
+    assertThat(cache.get(b.getName(), "../foo/b.js", b.getCode())).isNotNull();
+    cache.put(
+        a.getName(),
+        "../foo/a.js",
+        a.getCode(),
+        SimpleDependencyInfo.builder("../foo/a.js", a.getName()).setProvides("cached").build());
+    cache.save();
+
+    String second =
+        newDepsGenerator(ImmutableList.of(a, b)).setCacheFile(cacheFile).computeDependencyCalls();
+    assertThat(second).isEqualTo(first.replace("['a']", "['cached']"));
+    assertThat(second).isNotEqualTo(first);
+
+    cache = DependencyInfoCache.load(cacheFile);
+    cache.put(a.getName(), "../foo/a.js", a.getCode(), scannedA);
+    cache.save();
+
+    SourceFile changedB =
+        SourceFile.fromCode("/base/javascript/foo/b.js", "goog.module('b');\ngoog.require('a');");
+    String changed =
+        newDepsGenerator(ImmutableList.of(a, changedB))
+            .setCacheFile(cacheFile)
+            .computeDependencyCalls();
+
+    assertNoWarnings();
+    assertThat(changed)
+        .isEqualTo(
+            LINE_JOINER.join(
+                "goog.addDependency('../foo/a.js', ['a'], []);",
+                "goog.addDependency('../foo/b.js', ['b'], ['a'], {'module': 'goog'});",
+                ""));
+  }
+
+  private DepsGenerator newDepsGenerator(List<SourceFile> srcs) {
+    return new DepsGenerator(
+        ImmutableList.of(),
+        srcs,
+        DepsGenerator.InclusionStrategy.ALWAYS,
+        "/base/javascript/closure",
+        errorManager,
+        new ModuleLoader(
+            null,
+            ImmutableList.of("/base/"),
+            ImmutableList.of(),
+            BrowserModuleResolver.FACTORY,
+            ModuleLoader.PathResolver.ABSOLUTE));
+  }
+
   private void assertNoWarnings() {
     assertThat(errorManager.getWarnings()).isEmpty();
     assertThat(errorManager.getErrors()).isEmpty();
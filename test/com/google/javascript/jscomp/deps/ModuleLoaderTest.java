@@ -27,6 +27,7 @@ import com.google.javascript.jscomp.CompilerInput;
 import com.google.javascript.jscomp.ErrorHandler;
 import com.google.javascript.jscomp.JSError;
 import com.google.javascript.jscomp.SourceFile;
+import com.google.javascript.jscomp.deps.ModuleLoader.ModuleResolverFactory;
 import com.google.javascript.jscomp.deps.ModuleLoader.PathEscaper;
 import com.google.javascript.jscomp.deps.ModuleLoader.PathResolver;
 import java.util.ArrayList;
@@ -641,6 +642,113 @@ public final class ModuleLoaderTest {
     assertUri("file.js", loader.resolve("/path/to/project/file.js"));
   }
 
+  @Test
+  public void testResolutionCacheSharedBetweenLoaders() {
+    ModuleResolutionCache cache = new ModuleResolutionCache();
+    int[] resolutions = {0};
+    ModuleResolverFactory factory = countingBrowserResolverFactory(resolutions);
+
+    ModuleLoader first = cachingLoader(cache, factory, "A/index.js", "B/index.js", "app.js");
+    assertUri("A/index.js", first.resolve("app.js").resolveJsModule("./A/index.js"));
+    assertThat(resolutions[0]).isEqualTo(1);
+
+    // Files in the same directory share resolutions.
+    ModuleLoader second = cachingLoader(cache, factory, "A/index.js", "B/index.js", "app.js");
+    assertUri("A/index.js", second.resolve("other.js").resolveJsModule("./A/index.js"));
+    assertThat(resolutions[0]).isEqualTo(1);
+
+    assertUri("A/index.js", second.resolve("B/index.js").resolveJsModule("../A/index.js"));
+    assertThat(resolutions[0]).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+
+    cache.clear();
+    assertThat(cache.size()).isEqualTo(0);
+    ModuleLoader third = cachingLoader(cache, factory, "A/index.js", "B/index.js", "app.js");
+    assertUri("A/index.js", third.resolve("app.js").resolveJsModule("./A/index.js"));
+    assertThat(resolutions[0]).isEqualTo(3);
+  }
+
+  @Test
+  public void testResolutionCacheNotSharedWithDifferentInputs() {
+    ModuleResolutionCache cache = new ModuleResolutionCache();
+    int[] resolutions = {0};
+    ModuleResolverFactory factory = countingBrowserResolverFactory(resolutions);
+
+    ModuleLoader first = cachingLoader(cache, factory, "A/index.js", "app.js");
+    assertUri("A/index.js", first.resolve("app.js").resolveJsModule("./A/index.js"));
+
+    ModuleLoader second = cachingLoader(cache, factory, "app.js");
+    assertThat(second.resolve("app.js").resolveJsModule("./A/index.js")).isNull();
+    assertThat(resolutions[0]).isEqualTo(2);
+  }
+
+  @Test
+  public void testResolutionCacheDoesNotStoreFailures() {
+    ModuleResolutionCache cache = new ModuleResolutionCache();
+    int[] resolutions = {0};
+    List<JSError> errors = new ArrayList<>();
+    ModuleLoader loader =
+        new ModuleLoader(
+            (level, error) -> errors.add(error),
+            ImmutableList.of(),
+            inputs("app.js"),
+            countingBrowserResolverFactory(resolutions),
+            PathResolver.RELATIVE,
+            PathEscaper.ESCAPE,
+            cache);
+
+    assertThat(loader.resolve("app.js").resolveJsModule("./missing.js")).isNull();
+    assertThat(loader.resolve("app.js").resolveJsModule("./missing.js")).isNull();
+
+    assertThat(resolutions[0]).isEqualTo(2);
+    assertThat(errors).hasSize(2);
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testResolverFactoriesEqualByValue() {
+    assertThat(new NodeModuleResolver.Factory(packageJsonMainEntries))
+        .isEqualTo(new NodeModuleResolver.Factory(ImmutableMap.copyOf(packageJsonMainEntries)));
+    assertThat(new NodeModuleResolver.Factory(packageJsonMainEntries))
+        .isNotEqualTo(new NodeModuleResolver.Factory());
+    assertThat(new WebpackModuleResolver.Factory(ImmutableMap.of("1", "a.js")))
+        .isEqualTo(new WebpackModuleResolver.Factory(ImmutableMap.of("1", "a.js")));
+    assertThat(
+            new BrowserWithTransformedPrefixesModuleResolver.Factory(ImmutableMap.of("@/", "/")))
+        .isEqualTo(
+            new BrowserWithTransformedPrefixesModuleResolver.Factory(ImmutableMap.of("@/", "/")));
+  }
+
+  private ModuleLoader cachingLoader(
+      ModuleResolutionCache cache, ModuleResolverFactory factory, String... inputNames) {
+    return new ModuleLoader(
+        /* errorHandler= */ null,
+        /* moduleRoots= */ ImmutableList.of(),
+        inputs(inputNames),
+        factory,
+        PathResolver.RELATIVE,
+        PathEscaper.ESCAPE,
+        cache);
+  }
+
+  /** Returns a factory for browser resolvers that count their calls in {@code resolutions}. */
+  private static ModuleResolverFactory countingBrowserResolverFactory(int[] resolutions) {
+    return (modulePaths, moduleRootPaths, errorHandler, pathEscaper) ->
+        new BrowserModuleResolver(modulePaths, moduleRootPaths, errorHandler, pathEscaper) {
+          @Nullable
+          @Override
+          public String resolveJsModule(
+              String scriptAddress,
+              String moduleAddress,
+              String sourcename,
+              int lineno,
+              int colno) {
+            resolutions[0]++;
+            return super.resolveJsModule(scriptAddress, moduleAddress, sourcename, lineno, colno);
+          }
+        };
+  }
+
   CompilerInput input(String name) {
     return new CompilerInput(SourceFile.fromCode(name, ""), false);
   }
@@ -1304,6 +1304,29 @@ public final class ParserTest extends BaseJSTypeTestCase {
     assertThat(nonJSDocComment).isNull();
   }
 
+  @Test
+  public void testDescriptionOnlyJSDocWithoutDescriptions() {
+    parsingMode = JsDocParsing.TYPES_ONLY;
+    Node script =
+        parse(
+            lines(
+                "/** Adds two numbers. */ function f() {}",
+                "/**\n * Plain prose, {not} a type.\n */ function g() {}",
+                "/** */ function h() {}",
+                "/** @return {number} */ function i() {}"));
+
+    JSDocInfo fInfo = script.getFirstChild().getJSDocInfo();
+    assertThat(fInfo).isNotNull();
+    assertThat(fInfo.getBlockDescription()).isNull();
+    assertThat(fInfo.getOriginalCommentString()).isNull();
+    assertThat(fInfo.getVisibility()).isEqualTo(JSDocInfo.Visibility.INHERITED);
+    assertThat(fInfo.hasType()).isFalse();
+    assertThat(JSDocInfo.areEquivalent(fInfo, script.getSecondChild().getJSDocInfo())).isTrue();
+
+    assertThat(script.getChildAtIndex(2).getJSDocInfo()).isNull();
+    assertThat(script.getLastChild().getJSDocInfo().hasReturnType()).isTrue();
+  }
+
   @Test
   public void testInlineJSDocAttachmentToObjPatNormalProp() {
     Node letNode =
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 The Closure Compiler Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.javascript.jscomp.parsing.parser;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.javascript.jscomp.parsing.parser.util.LookaheadErrorReporter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link Scanner}. */
+@RunWith(JUnit4.class)
+public final class ScannerTest {
+
+  @Test
+  public void testRepeatedIdentifiersShareValue() {
+    List<Token> tokens = scan("foo.bar(foo, bar);\nfoo");
+
+    assertThat(tokens.get(0).asIdentifier().value).isEqualTo("foo");
+    assertThat(tokens.get(4).asIdentifier().value)
+        .isSameInstanceAs(tokens.get(0).asIdentifier().value);
+    assertThat(tokens.get(6).asIdentifier().value)
+        .isSameInstanceAs(tokens.get(2).asIdentifier().value);
+    assertThat(tokens.get(9).asIdentifier().value)
+        .isSameInstanceAs(tokens.get(0).asIdentifier().value);
+    assertThat(tokens.get(9).location.start.line).isEqualTo(1);
+  }
+
+  @Test
+  public void testManyIdentifiers() {
+    StringBuilder code = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      code.append("a").append(i).append(' ');
+    }
+    code.append("a999 a0");
+
+    List<Token> tokens = scan(code.toString());
+
+    assertThat(tokens).hasSize(1002);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(tokens.get(i).asIdentifier().value).isEqualTo("a" + i);
+    }
+    assertThat(tokens.get(1000).asIdentifier().value)
+        .isSameInstanceAs(tokens.get(999).asIdentifier().value);
+    assertThat(tokens.get(1001).asIdentifier().value)
+        .isSameInstanceAs(tokens.get(0).asIdentifier().value);
+  }
+
+  @Test
+  public void testAdjacentTokensSharePosition() {
+    List<Token> tokens = scan("a.b;");
+
+    assertThat(tokens.get(1).location.start).isSameInstanceAs(tokens.get(0).location.end);
+    assertThat(tokens.get(2).location.start).isSameInstanceAs(tokens.get(1).location.end);
+    assertThat(tokens.get(2).location.start.column).isEqualTo(2);
+  }
+
+  @Test
+  public void testLineOffsets() {
+    Scanner scanner = newScanner("a;\r\nb;\rc;\u2028d;\n\n`e\nf`;\n");
+
+    assertThat(scanner.getLineOffsets()).isNull();
+    scanAll(scanner);
+
+    // Only '\n' separates lines in the table.
+    assertThat(scanner.getLineOffsets()).asList().containsExactly(0, 4, 13, 14, 17, 21).inOrder();
+  }
+
+  @Test
+  public void testLineOffsetsEmptySource() {
+    Scanner scanner = newScanner("");
+    scanAll(scanner);
+
+    assertThat(scanner.getLineOffsets()).asList().containsExactly(0);
+  }
+
+  private static List<Token> scan(String code) {
+    return scanAll(newScanner(code));
+  }
+
+  private static Scanner newScanner(String code) {
+    return new Scanner(
+        new LookaheadErrorReporter(), (type, range, value) -> {}, new SourceFile("test.js", code));
+  }
+
+  private static List<Token> scanAll(Scanner scanner) {
+    List<Token> tokens = new ArrayList<>();
+    for (Token token = scanner.nextToken();
+        token.type != TokenType.END_OF_FILE;
+        token = scanner.nextToken()) {
+      tokens.add(token);
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ * ***** BEGIN LICENSE BLOCK *****
+ * Version: MPL 1.1/GPL 2.0
+ *
+ * The contents of this file are subject to the Mozilla Public License Version
+ * 1.1 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is Rhino code, released
+ * May 6, 1999.
+ *
+ * The Initial Developer of the Original Code is
+ * Netscape Communications Corporation.
+ * Portions created by the Initial Developer are Copyright (C) 1997-1999
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Google Inc.
+ *
+ * Alternatively, the contents of this file may be used under the terms of
+ * the GNU General Public License Version 2 or later (the "GPL"), in which
+ * case the provisions of the GPL are applicable instead of those above. If
+ * you wish to allow use of your version of this file only under the terms of
+ * the GPL and not to allow others to use your version of this file under the
+ * MPL, indicate your decision by deleting the provisions above and replacing
+ * them with the notice and other provisions required by the GPL. If you do
+ * not delete the provisions above, a recipient may use your version of this
+ * file under either the MPL or the GPL.
+ *
+ * ***** END LICENSE BLOCK ***** */
+package com.google.javascript.rhino;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.javascript.rhino.testing.Asserts.assertThrows;
+
+import com.google.common.collect.Iterables;
+import java.util.Objects;
+import java.util.TreeSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link IntHamtPMap}. */
+@RunWith(JUnit4.class)
+public class IntHamtPMapTest {
+  @Test
+  public void testEmpty() {
+    IntHamtPMap<String> map = IntHamtPMap.empty();
+    assertThat(map.get(0)).isNull();
+    assertThat(map.values()).isEmpty();
+    assertThat(map.keys()).isEmpty();
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testPlusAndMinus() {
+    IntHamtPMap<String> empty = IntHamtPMap.empty();
+    IntHamtPMap<String> map = empty.plus(0, "a").plus(-1, "b").plus(16, "c");
+    assertThat(map.get(0)).isEqualTo("a");
+    assertThat(map.get(-1)).isEqualTo("b");
+    assertThat(map.get(16)).isEqualTo("c");
+    assertThat(map.get(1)).isNull();
+    assertThat(map.keys()).containsExactly(0, -1, 16);
+    assertThat(map.plus(16, "c")).isSameInstanceAs(map);
+    assertThat(map.minus(1)).isSameInstanceAs(map);
+
+    map = map.plus(16, "d").minus(0);
+    assertThat(map.get(0)).isNull();
+    assertThat(map.get(16)).isEqualTo("d");
+    assertThat(map.values()).containsExactly("b", "d");
+
+    assertThat(map.minus(-1).minus(16)).isSameInstanceAs(IntHamtPMap.empty());
+  }
+
+  @Test
+  public void testReconcile() {
+    IntHamtPMap<Integer> left = build(1, 6, 2, 19, 4, 23, 5, 8, 42, 12, 18, 33);
+    IntHamtPMap<Integer> right =
+        build().plus(3, 1).plus(4, 1).plus(8, 1).plus(19, 1).plus(25, 1).plus(42, 1);
+    IntHamtPMap<Integer> expected =
+        left.plus(3, 1).plus(4, 5).plus(8, 9).plus(19, 20).plus(25, 1).plus(42, 43);
+
+    IntHamtPMap<Integer> joined =
+        left.reconcile(right, (k, a, b) -> a == null ? b : b == null ? a : a + b);
+    assertThat(joined.assertCorrectStructure().equivalent(expected, Objects::equals)).isTrue();
+  }
+
+  @Test
+  public void testReconcile_returnsInputWhenUnchanged() {
+    IntHamtPMap<Integer> left = build(1, 3, 5, 7);
+    IntHamtPMap<Integer> right = build(3, 7);
+
+    assertThat(left.reconcile(right, (k, a, b) -> a != null ? a : b)).isSameInstanceAs(left);
+    assertThat(left.reconcile(IntHamtPMap.empty(), (k, a, b) -> a)).isSameInstanceAs(left);
+  }
+
+  @Test
+  public void testReconcile_rejectsNullResult() {
+    IntHamtPMap<Integer> left = build(1, 3, 5, 7);
+    IntHamtPMap<Integer> right = build(2, 4, 6, 8);
+
+    assertThrows(Exception.class, () -> left.reconcile(right, (k, a, b) -> null));
+  }
+
+  @Test
+  public void testEquivalent() {
+    IntHamtPMap<Integer> left = build(1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024);
+    IntHamtPMap<Integer> right = build(2, 512, 32, 8, 1024, 1, 64, 4, 16, 256, 128);
+
+    assertThat(left.equivalent(right, Objects::equals)).isTrue();
+    assertThat(right.equivalent(left, Objects::equals)).isTrue();
+    assertThat(left.equivalent(right.plus(8, 9), Objects::equals)).isFalse();
+    assertThat(left.equivalent(right.minus(8), Objects::equals)).isFalse();
+    assertThat(left.minus(8).equivalent(right.minus(8).plus(9, 8), Objects::equals)).isFalse();
+  }
+
+  @Test
+  public void testIntegration() {
+    TreeSet<Integer> ref = new TreeSet<>();
+    IntHamtPMap<String> map = IntHamtPMap.empty();
+
+    // Note: multiplying by 43 produces every nonzero integer mod 127.
+    for (int i = 17; ref.add(i); i = (i * 43) % 127) {
+      map = map.plus(i, String.valueOf(i)).assertCorrectStructure();
+      for (int j = 1; j < 127; j++) {
+        assertThat(map.get(j)).isEqualTo(ref.contains(j) ? String.valueOf(j) : null);
+      }
+      assertThat(map.keys()).containsExactlyElementsIn(ref);
+    }
+    assertThat(ref).hasSize(126);
+
+    // Note: multiplying by 39 produces every nonzero integer mod 127 in a different order.
+    for (int i = 12; ref.remove(i); i = (i * 39) % 127) {
+      map = map.minus(i).assertCorrectStructure();
+      for (int j = 1; j < 127; j++) {
+        assertThat(map.get(j)).isEqualTo(ref.contains(j) ? String.valueOf(j) : null);
+      }
+      assertThat(map.values()).containsExactlyElementsIn(Iterables.transform(ref, String::valueOf));
+    }
+    assertThat(map).isSameInstanceAs(IntHamtPMap.empty());
+  }
+
+  private static IntHamtPMap<Integer> build(int... values) {
+    IntHamtPMap<Integer> map = IntHamtPMap.empty();
+    for (int value : values) {
+      map = map.plus(value, value).assertCorrectStructure();
+    }
+    return map;
+  }
+}
@@ -47,6 +47,10 @@ import com.google.javascript.jscomp.colors.NativeColorId;
 import com.google.javascript.rhino.jstype.JSTypeNative;
 import com.google.javascript.rhino.jstype.JSTypeRegistry;
 import com.google.javascript.rhino.testing.TestErrorReporter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -470,7 +474,7 @@ public class NodeTest {
     n.setSideEffectFlags(5);
     Node m = new Node(Token.TRUE);
     m.clonePropsFrom(n);
-    assertThat(n.getPropListHeadForTesting()).isEqualTo(m.getPropListHeadForTesting());
+    assertThat(n.getPropValuesForTesting()).isSameInstanceAs(m.getPropValuesForTesting());
     assertThat(n.getSideEffectFlags()).isEqualTo(5);
     assertThat(m.getSideEffectFlags()).isEqualTo(5);
   }
@@ -485,7 +489,7 @@ public class NodeTest {
     n.setSideEffectFlags(6);
     assertThat(n.getSideEffectFlags()).isEqualTo(6);
     assertThat(m.getSideEffectFlags()).isEqualTo(5);
-    assertThat(m.getPropListHeadForTesting() == n.getPropListHeadForTesting()).isFalse();
+    assertThat(m.getPropValuesForTesting()).isNotSameInstanceAs(n.getPropValuesForTesting());
 
     m.setSideEffectFlags(7);
     assertThat(n.getSideEffectFlags()).isEqualTo(6);
@@ -511,20 +515,134 @@ public class NodeTest {
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertThat(n.lookupProperty(Node.IS_CONSTANT_NAME)).isNull();
+    assertThat(n.hasProps()).isFalse();
     assertThat(n.getBooleanProp(Node.IS_CONSTANT_NAME)).isFalse();
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, true);
 
-    assertThat(n.lookupProperty(Node.IS_CONSTANT_NAME)).isNotNull();
+    assertThat(n.hasProps()).isTrue();
     assertThat(n.getBooleanProp(Node.IS_CONSTANT_NAME)).isTrue();
 
     n.putBooleanProp(Node.IS_CONSTANT_NAME, false);
 
-    assertThat(n.lookupProperty(Node.IS_CONSTANT_NAME)).isNull();
+    assertThat(n.hasProps()).isFalse();
     assertThat(n.getBooleanProp(Node.IS_CONSTANT_NAME)).isFalse();
   }
 
+  @Test
+  public void testBooleanPropDoesNotAllocate() {
+    Node n = getVarRef("a");
+    n.setSourceFileForTesting("a.js");
+    Object[] propValues = n.getPropValuesForTesting();
+
+    n.putBooleanProp(Node.IS_CONSTANT_NAME, true);
+    n.putBooleanProp(Node.FREE_CALL, true);
+
+    assertThat(n.getPropValuesForTesting()).isSameInstanceAs(propValues);
+    assertThat(n.getBooleanProp(Node.IS_CONSTANT_NAME)).isTrue();
+    assertThat(n.getBooleanProp(Node.FREE_CALL)).isTrue();
+    assertThat(n.getSourceFileName()).isEqualTo("a.js");
+  }
+
+  @Test
+  public void testIntPropMovesBetweenBitsAndValues() {
+    Node n = getCall("A");
+
+    n.putIntProp(Node.INCRDECR_PROP, 1);
+    assertThat(n.getIntProp(Node.INCRDECR_PROP)).isEqualTo(1);
+    assertThat(n.getPropValuesForTesting()).isNull();
+
+    n.putIntProp(Node.INCRDECR_PROP, 1000);
+    assertThat(n.getIntProp(Node.INCRDECR_PROP)).isEqualTo(1000);
+    assertThat(n.getBooleanProp(Node.INCRDECR_PROP)).isTrue();
+
+    n.putIntProp(Node.INCRDECR_PROP, 1);
+    assertThat(n.getIntProp(Node.INCRDECR_PROP)).isEqualTo(1);
+    assertThat(n.getPropValuesForTesting()).isNull();
+
+    n.putIntProp(Node.INCRDECR_PROP, 0);
+    assertThat(n.getIntProp(Node.INCRDECR_PROP)).isEqualTo(0);
+    assertThat(n.hasProps()).isFalse();
+  }
+
+  @Test
+  public void testRemovePropKeepsOtherProps() {
+    Node n = getCall("A");
+    n.setSourceFileForTesting("a.js");
+    n.setOriginalName("b");
+    n.setSideEffectFlags(5);
+
+    n.putProp(Node.ORIGINALNAME_PROP, null);
+
+    assertThat(n.getOriginalName()).isNull();
+    assertThat(n.getSideEffectFlags()).isEqualTo(5);
+    assertThat(n.getSourceFileName()).isEqualTo("a.js");
+  }
+
+  @Test
+  public void testStaticSourceFileFromSharesPropValues() {
+    Node n = getVarRef("a");
+    n.setSourceFileForTesting("a.js");
+    Node m = getVarRef("b");
+    m.putBooleanProp(Node.IS_CONSTANT_NAME, true);
+
+    m.setStaticSourceFileFrom(n);
+
+    assertThat(m.getPropValuesForTesting()).isSameInstanceAs(n.getPropValuesForTesting());
+    assertThat(m.getBooleanProp(Node.IS_CONSTANT_NAME)).isTrue();
+  }
+
+  @Test
+  public void testUseSourceInfoFromSharesPropValues() {
+    Node n = getVarRef("a");
+    n.setSourceFileForTesting("a.js");
+    n.setOriginalName("orig");
+    n.setLineno(2);
+    n.setCharno(3);
+    Node m = getVarRef("b");
+
+    m.useSourceInfoFrom(n);
+
+    assertThat(m.getPropValuesForTesting()).isSameInstanceAs(n.getPropValuesForTesting());
+    assertThat(m.getOriginalName()).isEqualTo("orig");
+    assertThat(m.getLineno()).isEqualTo(2);
+    assertThat(m.getCharno()).isEqualTo(3);
+
+    // Writing to the shared array copies it first.
+    m.setOriginalName("other");
+    assertThat(n.getOriginalName()).isEqualTo("orig");
+    assertThat(m.getSourceFileName()).isEqualTo("a.js");
+  }
+
+  @Test
+  public void testUseSourceInfoFromKeepsOtherProps() {
+    Node n = getVarRef("a");
+    n.setSourceFileForTesting("a.js");
+    n.setOriginalName("orig");
+    Node m = getVarRef("b");
+    m.setJSDocInfo(JSDocInfo.builder().build(true));
+
+    m.useSourceInfoFrom(n);
+
+    assertThat(m.getPropValuesForTesting()).isNotSameInstanceAs(n.getPropValuesForTesting());
+    assertThat(m.getOriginalName()).isEqualTo("orig");
+    assertThat(m.getSourceFileName()).isEqualTo("a.js");
+    assertThat(m.getJSDocInfo()).isNotNull();
+  }
+
+  @Test
+  public void testUseSourceInfoIfMissingFromSharesPropValues() {
+    Node n = getVarRef("a");
+    n.setSourceFileForTesting("a.js");
+    n.setOriginalName("orig");
+    Node m = getVarRef("b");
+
+    m.useSourceInfoIfMissingFrom(n);
+
+    assertThat(m.getPropValuesForTesting()).isSameInstanceAs(n.getPropValuesForTesting());
+    assertThat(m.getOriginalName()).isEqualTo("orig");
+  }
+
   // Verify that annotations on cloned nodes are properly handled.
   @Test
   public void testCloneAnnontations2() {
@@ -731,4 +849,49 @@ public class NodeTest {
   private static Node getCall(String name1) {
     return new Node(Token.CALL, getVarRef(name1));
   }
+
+  @Test
+  public void testSerializationRoundTrip() throws Exception {
+    SimpleSourceFile file = new SimpleSourceFile("a.js", StaticSourceFile.SourceKind.STRONG);
+    Node name = IR.name("f");
+    name.setStaticSourceFile(file);
+    Node number = IR.number(1);
+    number.setStaticSourceFileFrom(name);
+    Node call = IR.call(name, number);
+    call.setStaticSourceFileFrom(name);
+    call.setLineno(3);
+    call.setCharno(4);
+    call.setLength(4);
+    call.setIsParenthesized(true);
+    call.setSideEffectFlags(Node.SideEffectFlags.MUTATES_THIS);
+    Node exprResult = IR.exprResult(call);
+    JSDocInfoBuilder jsdoc = JSDocInfo.builder();
+    jsdoc.recordConstancy();
+    exprResult.setJSDocInfo(jsdoc.build());
+    Node script = IR.script(exprResult);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(script);
+    }
+    Node copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (Node) in.readObject();
+    }
+
+    assertNode(copy).isEqualTo(script);
+    assertThat(copy.getFirstChild().getJSDocInfo().isConstant()).isTrue();
+    Node copiedCall = copy.getFirstFirstChild();
+    assertThat(copiedCall.getLineno()).isEqualTo(3);
+    assertThat(copiedCall.getCharno()).isEqualTo(4);
+    assertThat(copiedCall.getLength()).isEqualTo(4);
+    assertThat(copiedCall.getIsParenthesized()).isTrue();
+    assertThat(copiedCall.getSideEffectFlags()).isEqualTo(Node.SideEffectFlags.MUTATES_THIS);
+    // The source file is read back once and shared by the nodes that shared it.
+    StaticSourceFile copiedFile = copiedCall.getStaticSourceFile();
+    assertThat(copiedFile.getName()).isEqualTo("a.js");
+    assertThat(copiedCall.getFirstChild().getStaticSourceFile()).isSameInstanceAs(copiedFile);
+    assertThat(copiedCall.getSecondChild().getStaticSourceFile()).isSameInstanceAs(copiedFile);
+  }
 }
@@ -58,6 +58,7 @@ import static com.google.javascript.rhino.jstype.JSTypeNative.STRING_TYPE;
 import static com.google.javascript.rhino.testing.TypeSubject.assertType;
 import static com.google.javascript.rhino.testing.TypeSubject.types;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.javascript.rhino.IR;
@@ -178,6 +179,73 @@ public class JSTypeRegistryTest {
     assertType(registry.getType(null, name)).isEqualTo(type);
   }
 
+  @Test
+  public void testSubtypeRelationCache() {
+    FunctionType foo = registry.createConstructorType("Foo", null, null, null, null, false);
+    FunctionType bar = registry.createInterfaceType("Bar", null, ImmutableList.of(), false);
+    InstanceObjectType fooInstance = (InstanceObjectType) foo.getInstanceType();
+    InstanceObjectType barInstance = (InstanceObjectType) bar.getInstanceType();
+
+    // Nothing is cached until all types are resolved.
+    assertThat(registry.getSubtypeRelationCache()).isNull();
+    this.closer.close();
+
+    assertType(fooInstance).isNotSubtypeOf(barInstance);
+    assertThat(registry.getSubtypeRelationCache().get(fooInstance, barInstance))
+        .isEqualTo(JSType.MatchStatus.NOT_MATCH);
+
+    // Changing the type hierarchy drops the cached relation.
+    foo.setImplementedInterfaces(ImmutableList.of(barInstance));
+    assertThat(registry.getSubtypeRelationCache().get(fooInstance, barInstance)).isNull();
+    assertType(fooInstance).isSubtypeOf(barInstance);
+    assertThat(registry.getSubtypeRelationCache().get(fooInstance, barInstance))
+        .isEqualTo(JSType.MatchStatus.MATCH);
+  }
+
+  @Test
+  public void testStructuralTypesAreInterned() {
+    JSType number = registry.getNativeType(NUMBER_TYPE);
+    JSType string = registry.getNativeType(STRING_TYPE);
+    ObjectType array = registry.getNativeObjectType(JSTypeNative.ARRAY_TYPE);
+
+    // Types built while the registry is open may still have their parts replaced.
+    assertThat(registry.createUnionType(number, string))
+        .isNotSameInstanceAs(registry.createUnionType(number, string));
+    this.closer.close();
+
+    assertThat(registry.createUnionType(number, string))
+        .isSameInstanceAs(registry.createUnionType(number, string));
+    assertThat(registry.createTemplatizedType(array, number))
+        .isSameInstanceAs(registry.createTemplatizedType(array, number));
+    assertThat(registry.createRecordType(ImmutableMap.of("a", number, "b", string)))
+        .isSameInstanceAs(registry.createRecordType(ImmutableMap.of("b", string, "a", number)));
+
+    assertThat(registry.createTemplatizedType(array, number))
+        .isNotSameInstanceAs(registry.createTemplatizedType(array, string));
+    assertThat(registry.createRecordType(ImmutableMap.of("a", number)))
+        .isNotSameInstanceAs(registry.createRecordType(ImmutableMap.of("b", number)));
+  }
+
+  @Test
+  public void testTypeInternerIsBounded() {
+    JSType number = registry.getNativeType(NUMBER_TYPE);
+    this.closer.close();
+
+    // As many distinct types as a long inference run might build at its joins.
+    JSType first = registry.createRecordType(ImmutableMap.of("p0", number));
+    JSType last = first;
+    for (int i = 1; i < 2 * TypeInterner.MAX_SIZE; i++) {
+      last = registry.createRecordType(ImmutableMap.of("p" + i, number));
+    }
+
+    assertThat(registry.getTypeInterner().size()).isAtMost(TypeInterner.MAX_SIZE);
+    String lastName = "p" + (2 * TypeInterner.MAX_SIZE - 1);
+    assertThat(registry.createRecordType(ImmutableMap.of(lastName, number)))
+        .isSameInstanceAs(last);
+    // The oldest ones were evicted and are built again.
+    assertThat(registry.createRecordType(ImmutableMap.of("p0", number))).isNotSameInstanceAs(first);
+  }
+
   @Test
   public void testPropertyOnManyTypes() {
     this.closer.close(); // Force resolution to happen on the union.
@@ -6469,15 +6469,28 @@ public class JSTypeTest extends BaseJSTypeTestCase {
 
   @Test
   public void testRecordTypeEquality() {
-    // {x: number}
-    JSType firstType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
-    JSType secondType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
+    // {x: number}, built while the registry is open so that the records are not interned.
+    JSType firstType;
+    JSType secondType;
+    try (JSTypeResolver.Closer closer = registry.getResolver().openForDefinition()) {
+      firstType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
+      secondType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
+    }
 
     assertType(firstType).isNotSameInstanceAs(secondType);
     assertType(firstType).isEqualTo(secondType);
     assertType(firstType).isEqualTo(secondType);
   }
 
+  @Test
+  public void testRecordTypesAreInterned() {
+    // {x: number}
+    JSType firstType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
+    JSType secondType = registry.createRecordType(ImmutableMap.of("x", NUMBER_TYPE));
+
+    assertType(firstType).isSameInstanceAs(secondType);
+  }
+
   @Test
   public void testRecordAndInterfaceObjectTypeNotEqualWithSameProperties() {
     // {x: number}